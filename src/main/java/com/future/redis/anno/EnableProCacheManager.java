@@ -21,4 +21,12 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Configuration
 @Import(ProCacheManagerConfiguration.class)
 public @interface EnableProCacheManager {
+
+    /**
+     * max size of the local cache of each cache, enable two tier cache manager when greater than 0
+     *
+     * @return
+     */
+    int localMaxSize() default 0;
+
 }
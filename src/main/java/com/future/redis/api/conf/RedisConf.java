@@ -1,6 +1,8 @@
 package com.future.redis.api.conf;
 
+import com.future.redis.constant.CompressionType;
 import com.future.redis.constant.ServerMode;
+import com.future.redis.constant.ValueSerializerType;
 
 import java.util.List;
 
@@ -70,4 +72,49 @@ public interface RedisConf {
     Long getEntryTtl();
 
     Boolean getExposeConnection();
+
+    /*
+     * getters below return the defaults of the generator, so existing implementations keep compiling,
+     * null disables the optional feature
+     */
+
+    //<editor-fold desc="read coalesce conf">
+    default Long getReadCoalesceWindowMicros() {
+        return null;
+    }
+
+    default Integer getReadCoalesceMaxBatch() {
+        return 128;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="serializer conf">
+    default ValueSerializerType getValueSerializerType() {
+        return ValueSerializerType.JDK;
+    }
+
+    default CompressionType getCompressionType() {
+        return CompressionType.NONE;
+    }
+
+    default Integer getCompressionThreshold() {
+        return 1024;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="counter conf">
+    default Long getCounterFlushIntervalMillis() {
+        return null;
+    }
+
+    default Long getCounterFlushThreshold() {
+        return null;
+    }
+    //</editor-fold>
+
+    //<editor-fold desc="near cache conf">
+    default Integer getNearCacheMaxSize() {
+        return null;
+    }
+    //</editor-fold>
 }
@@ -1,6 +1,8 @@
 package com.future.redis.api.conf;
 
+import com.future.redis.constant.CompressionType;
 import com.future.redis.constant.ServerMode;
+import com.future.redis.constant.ValueSerializerType;
 
 import java.util.List;
 
@@ -70,6 +72,30 @@ public class RedisConfParams implements RedisConf {
 
     protected Boolean exposeConnection;
 
+    //<editor-fold desc="read coalesce conf">
+    protected Long readCoalesceWindowMicros;
+
+    protected Integer readCoalesceMaxBatch;
+    //</editor-fold>
+
+    //<editor-fold desc="serializer conf">
+    protected ValueSerializerType valueSerializerType;
+
+    protected CompressionType compressionType;
+
+    protected Integer compressionThreshold;
+    //</editor-fold>
+
+    //<editor-fold desc="counter conf">
+    protected Long counterFlushIntervalMillis;
+
+    protected Long counterFlushThreshold;
+    //</editor-fold>
+
+    //<editor-fold desc="near cache conf">
+    protected Integer nearCacheMaxSize;
+    //</editor-fold>
+
     public RedisConfParams() {
     }
 
@@ -208,6 +234,46 @@ public class RedisConfParams implements RedisConf {
         return exposeConnection;
     }
 
+    @Override
+    public Long getReadCoalesceWindowMicros() {
+        return readCoalesceWindowMicros;
+    }
+
+    @Override
+    public Integer getReadCoalesceMaxBatch() {
+        return readCoalesceMaxBatch;
+    }
+
+    @Override
+    public ValueSerializerType getValueSerializerType() {
+        return valueSerializerType;
+    }
+
+    @Override
+    public CompressionType getCompressionType() {
+        return compressionType;
+    }
+
+    @Override
+    public Integer getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    @Override
+    public Long getCounterFlushIntervalMillis() {
+        return counterFlushIntervalMillis;
+    }
+
+    @Override
+    public Long getCounterFlushThreshold() {
+        return counterFlushThreshold;
+    }
+
+    @Override
+    public Integer getNearCacheMaxSize() {
+        return nearCacheMaxSize;
+    }
+
     public void setServerMode(ServerMode serverMode) {
         this.serverMode = serverMode;
     }
@@ -316,6 +382,38 @@ public class RedisConfParams implements RedisConf {
         this.exposeConnection = exposeConnection;
     }
 
+    public void setReadCoalesceWindowMicros(Long readCoalesceWindowMicros) {
+        this.readCoalesceWindowMicros = readCoalesceWindowMicros;
+    }
+
+    public void setReadCoalesceMaxBatch(Integer readCoalesceMaxBatch) {
+        this.readCoalesceMaxBatch = readCoalesceMaxBatch;
+    }
+
+    public void setValueSerializerType(ValueSerializerType valueSerializerType) {
+        this.valueSerializerType = valueSerializerType;
+    }
+
+    public void setCompressionType(CompressionType compressionType) {
+        this.compressionType = compressionType;
+    }
+
+    public void setCompressionThreshold(Integer compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public void setCounterFlushIntervalMillis(Long counterFlushIntervalMillis) {
+        this.counterFlushIntervalMillis = counterFlushIntervalMillis;
+    }
+
+    public void setCounterFlushThreshold(Long counterFlushThreshold) {
+        this.counterFlushThreshold = counterFlushThreshold;
+    }
+
+    public void setNearCacheMaxSize(Integer nearCacheMaxSize) {
+        this.nearCacheMaxSize = nearCacheMaxSize;
+    }
+
     @Override
     public String toString() {
         return "RedisConfParams{" +
@@ -346,6 +444,14 @@ public class RedisConfParams implements RedisConf {
                 ", shareNativeConnection=" + shareNativeConnection +
                 ", entryTtl=" + entryTtl +
                 ", exposeConnection=" + exposeConnection +
+                ", readCoalesceWindowMicros=" + readCoalesceWindowMicros +
+                ", readCoalesceMaxBatch=" + readCoalesceMaxBatch +
+                ", valueSerializerType=" + valueSerializerType +
+                ", compressionType=" + compressionType +
+                ", compressionThreshold=" + compressionThreshold +
+                ", counterFlushIntervalMillis=" + counterFlushIntervalMillis +
+                ", counterFlushThreshold=" + counterFlushThreshold +
+                ", nearCacheMaxSize=" + nearCacheMaxSize +
                 '}';
     }
 
@@ -1,8 +1,19 @@
 package com.future.redis.api.generator;
 
+import com.future.redis.common.ProNativeConnection;
+import com.future.redis.component.ProAsyncTokenBucketRateLimiter;
+import com.future.redis.component.ProCompositeRateLimiter;
+import com.future.redis.component.ProFallbackTokenBucketRateLimiter;
 import com.future.redis.component.ProFixedTokenBucketRateLimiter;
+import com.future.redis.component.ProFixedWindowRateLimiter;
+import com.future.redis.component.ProGcraRateLimiter;
+import com.future.redis.component.ProLeakyBucketRateLimiter;
+import com.future.redis.component.ProLeasedTokenBucketRateLimiter;
+import com.future.redis.component.ProSlidingWindowRateLimiter;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
+import java.util.List;
+
 /**
  * rate limiter generator
  *
@@ -23,4 +34,107 @@ public final class ProRateLimiterGenerator {
         return new ProFixedTokenBucketRateLimiter(stringRedisTemplate, replenishRate, burstCapacity);
     }
 
+    /**
+     * generate non-blocking token bucket rate limiter
+     *
+     * @param nativeConnection
+     * @param replenishRate
+     * @param burstCapacity
+     * @return
+     */
+    public static ProAsyncTokenBucketRateLimiter generateAsyncTokenBucketRateLimiter(ProNativeConnection nativeConnection, Integer replenishRate, Integer burstCapacity) {
+        return new ProAsyncTokenBucketRateLimiter(nativeConnection, replenishRate, burstCapacity);
+    }
+
+    /**
+     * generate token bucket rate limiter with a circuit breaker and local fallback buckets
+     *
+     * @param stringRedisTemplate
+     * @param replenishRate
+     * @param burstCapacity
+     * @param nodeCount
+     * @param failureThreshold
+     * @param slowCallMillis
+     * @param openMillis
+     * @return
+     */
+    public static ProFallbackTokenBucketRateLimiter generateFallbackTokenBucketRateLimiter(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity,
+                                                                                           Integer nodeCount, Integer failureThreshold, Long slowCallMillis, Long openMillis) {
+        return new ProFallbackTokenBucketRateLimiter(stringRedisTemplate, replenishRate, burstCapacity, nodeCount, failureThreshold, slowCallMillis, openMillis);
+    }
+
+    /**
+     * generate gcra rate limiter
+     *
+     * @param stringRedisTemplate
+     * @param replenishRate
+     * @param burstCapacity
+     * @return
+     */
+    public static ProGcraRateLimiter generateGcraRateLimiter(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity) {
+        return new ProGcraRateLimiter(stringRedisTemplate, replenishRate, burstCapacity);
+    }
+
+    /**
+     * generate token bucket rate limiter with local token leases
+     *
+     * @param stringRedisTemplate
+     * @param replenishRate
+     * @param burstCapacity
+     * @param leaseMillis
+     * @param maxLeaseSize
+     * @return
+     */
+    public static ProLeasedTokenBucketRateLimiter generateLeasedTokenBucketRateLimiter(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity,
+                                                                                       Long leaseMillis, Integer maxLeaseSize) {
+        return new ProLeasedTokenBucketRateLimiter(stringRedisTemplate, replenishRate, burstCapacity, leaseMillis, maxLeaseSize);
+    }
+
+    /**
+     * generate fixed window rate limiter
+     *
+     * @param stringRedisTemplate
+     * @param limit
+     * @param windowMillis
+     * @return
+     */
+    public static ProFixedWindowRateLimiter generateFixedWindowRateLimiter(StringRedisTemplate stringRedisTemplate, Integer limit, Long windowMillis) {
+        return new ProFixedWindowRateLimiter(stringRedisTemplate, limit, windowMillis);
+    }
+
+    /**
+     * generate leaky bucket rate limiter
+     *
+     * @param stringRedisTemplate
+     * @param leakRate
+     * @param capacity
+     * @return
+     */
+    public static ProLeakyBucketRateLimiter generateLeakyBucketRateLimiter(StringRedisTemplate stringRedisTemplate, Integer leakRate, Integer capacity) {
+        return new ProLeakyBucketRateLimiter(stringRedisTemplate, leakRate, capacity);
+    }
+
+    /**
+     * generate approximate sliding window rate limiter
+     *
+     * @param stringRedisTemplate
+     * @param limit
+     * @param windowMillis
+     * @return
+     */
+    public static ProSlidingWindowRateLimiter generateSlidingWindowRateLimiter(StringRedisTemplate stringRedisTemplate, Integer limit, Long windowMillis) {
+        return new ProSlidingWindowRateLimiter(stringRedisTemplate, limit, windowMillis);
+    }
+
+    /**
+     * generate composite rate limiter, check all limits of a key in one script call
+     *
+     * @param stringRedisTemplate
+     * @param limits
+     * @return
+     */
+    public static ProCompositeRateLimiter generateCompositeRateLimiter(StringRedisTemplate stringRedisTemplate, List<ProCompositeRateLimiter.Limit> limits) {
+        return new ProCompositeRateLimiter(stringRedisTemplate, limits);
+    }
+
 }
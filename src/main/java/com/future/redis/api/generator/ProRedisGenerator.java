@@ -1,8 +1,16 @@
 package com.future.redis.api.generator;
 
 import com.future.redis.api.conf.RedisConf;
+import com.future.redis.common.ProCompressingRedisSerializer;
+import com.future.redis.common.ProCounterFlusher;
+import com.future.redis.common.ProNativeConnection;
+import com.future.redis.common.ProNearCache;
+import com.future.redis.common.ProReadCoalescer;
+import com.future.redis.common.ProTwoTierCacheManager;
 import com.future.redis.component.ProValidator;
+import com.future.redis.constant.CompressionType;
 import com.future.redis.constant.ServerMode;
+import com.future.redis.constant.ValueSerializerType;
 import io.lettuce.core.ClientOptions;
 import io.lettuce.core.SocketOptions;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
@@ -14,8 +22,11 @@ import org.springframework.data.redis.connection.*;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
@@ -26,17 +37,22 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static com.future.base.util.base.ProChecker.isNull;
+import static com.future.redis.constant.CompressionType.NONE;
 import static com.future.redis.constant.ServerMode.CLUSTER;
 import static com.future.redis.constant.ServerMode.SINGLE;
+import static com.future.redis.constant.ValueSerializerType.JDK;
+import static com.future.redis.constant.ValueSerializerType.JSON;
 import static io.lettuce.core.protocol.DecodeBufferPolicies.ratio;
 import static java.lang.Integer.parseInt;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.Duration.of;
+import static java.time.temporal.ChronoUnit.MICROS;
 import static java.time.temporal.ChronoUnit.MILLIS;
 import static java.time.temporal.ChronoUnit.SECONDS;
 import static java.util.Optional.ofNullable;
@@ -55,14 +71,26 @@ public final class ProRedisGenerator {
 
     private static final RedisSerializer<Object> JDK_REDIS_SERIALIZER = new JdkSerializationRedisSerializer();
 
+    private static final RedisSerializer<Object> JSON_REDIS_SERIALIZER = new GenericJackson2JsonRedisSerializer();
+
     private static final String KEY_VALUE_SEPARATOR = ":";
 
     private static final String CACHE_MANAGER_PRE = "CH_M:";
 
+    private static final String CACHE_MANAGER_INVALIDATION_CHANNEL = CACHE_MANAGER_PRE + "INVALIDATION";
+
+    private static final int DEFAULT_READ_COALESCE_MAX_BATCH = 128;
+
+    private static final long DEFAULT_COMMAND_TIMEOUT_SECONDS = 4L;
+
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
     private static final Map<ServerMode, Consumer<RedisConf>> SERVER_MODE_ASSERTERS = new HashMap<>(4, 1.0f);
 
     private static final Map<ServerMode, Function<RedisConf, RedisConfiguration>> CONF_GENERATORS = new HashMap<>(4, 1.0f);
 
+    private static final Map<ValueSerializerType, RedisSerializer<Object>> VALUE_SERIALIZERS = new HashMap<>(4, 1.0f);
+
     static {
         SERVER_MODE_ASSERTERS.put(CLUSTER, conf -> {
             if (isNull(conf))
@@ -84,6 +112,9 @@ public final class ProRedisGenerator {
 
         CONF_GENERATORS.put(CLUSTER, ProRedisGenerator::generateClusterConfiguration);
         CONF_GENERATORS.put(SINGLE, ProRedisGenerator::generateStandConfiguration);
+
+        VALUE_SERIALIZERS.put(JDK, JDK_REDIS_SERIALIZER);
+        VALUE_SERIALIZERS.put(JSON, JSON_REDIS_SERIALIZER);
     }
 
     private static final Consumer<RedisConf> SERVER_MODE_ASSERTER = conf -> {
@@ -252,6 +283,105 @@ public final class ProRedisGenerator {
         return lettuceConnectionFactory;
     }
 
+    /**
+     * generate dedicated native connection
+     *
+     * @param lettuceConnectionFactory
+     * @return
+     */
+    public static ProNativeConnection generateNativeConnection(LettuceConnectionFactory lettuceConnectionFactory) {
+        if (isNull(lettuceConnectionFactory))
+            throw new RuntimeException("lettuceConnectionFactory can't be null");
+
+        return new ProNativeConnection(lettuceConnectionFactory);
+    }
+
+    /**
+     * read coalesce enabled?
+     *
+     * @param redisConf
+     * @return
+     */
+    public static boolean readCoalesceEnabled(RedisConf redisConf) {
+        return ofNullable(redisConf).map(RedisConf::getReadCoalesceWindowMicros).filter(w -> w > 0L).isPresent();
+    }
+
+    /**
+     * generate read coalescer
+     *
+     * @param redisConf
+     * @param name
+     * @param multiGetter
+     * @return
+     */
+    public static <V> ProReadCoalescer<V> generateReadCoalescer(RedisConf redisConf, String name, Function<List<String>, ? extends CompletionStage<List<V>>> multiGetter) {
+        confAsserter(redisConf);
+        if (!readCoalesceEnabled(redisConf))
+            throw new RuntimeException("readCoalesceWindowMicros can't be null or less than 1");
+
+        return new ProReadCoalescer<>(name, multiGetter,
+                of(redisConf.getReadCoalesceWindowMicros(), MICROS),
+                ofNullable(redisConf.getReadCoalesceMaxBatch()).orElse(DEFAULT_READ_COALESCE_MAX_BATCH),
+                of(ofNullable(redisConf.getCommandTimeout()).orElse(DEFAULT_COMMAND_TIMEOUT_SECONDS), SECONDS));
+    }
+
+    /**
+     * write behind counter enabled?
+     *
+     * @param redisConf
+     * @return
+     */
+    public static boolean counterFlushEnabled(RedisConf redisConf) {
+        return ofNullable(redisConf).map(RedisConf::getCounterFlushIntervalMillis).filter(i -> i > 0L).isPresent();
+    }
+
+    /**
+     * generate write behind counter flusher
+     *
+     * @param redisConf
+     * @param name
+     * @param stringRedisTemplate
+     * @return
+     */
+    public static ProCounterFlusher generateCounterFlusher(RedisConf redisConf, String name, StringRedisTemplate stringRedisTemplate) {
+        confAsserter(redisConf);
+        if (isNull(stringRedisTemplate))
+            throw new RuntimeException("stringRedisTemplate can't be null");
+        if (!counterFlushEnabled(redisConf))
+            throw new RuntimeException("counterFlushIntervalMillis can't be null or less than 1");
+
+        return new ProCounterFlusher(name, stringRedisTemplate,
+                of(redisConf.getCounterFlushIntervalMillis(), MILLIS), redisConf.getCounterFlushThreshold());
+    }
+
+    /**
+     * near cache enabled?
+     *
+     * @param redisConf
+     * @return
+     */
+    public static boolean nearCacheEnabled(RedisConf redisConf) {
+        return ofNullable(redisConf).map(RedisConf::getNearCacheMaxSize).filter(s -> s > 0).isPresent();
+    }
+
+    /**
+     * generate near cache
+     *
+     * @param redisConf
+     * @param nativeConnection
+     * @return
+     */
+    public static ProNearCache generateNearCache(RedisConf redisConf, ProNativeConnection nativeConnection) {
+        confAsserter(redisConf);
+        if (!nearCacheEnabled(redisConf))
+            throw new RuntimeException("nearCacheMaxSize can't be null or less than 1");
+        if (isNull(nativeConnection))
+            throw new RuntimeException("nativeConnection can't be null");
+        if (redisConf.getServerMode() != SINGLE)
+            throw new RuntimeException("near cache only supports serverMode SINGLE");
+
+        return new ProNearCache(nativeConnection, redisConf.getNearCacheMaxSize());
+    }
 
     /**
      * generate template
@@ -276,6 +406,29 @@ public final class ProRedisGenerator {
         return new ProValidator(stringRedisTemplate);
     }
 
+    /**
+     * generate value serializer of object template and cache manager, jdk by default,
+     * wrapped by a compressing serializer when compressionType is set
+     *
+     * @param redisConf
+     * @return
+     */
+    public static RedisSerializer<Object> generateValueSerializer(RedisConf redisConf) {
+        confAsserter(redisConf);
+
+        ValueSerializerType valueSerializerType = ofNullable(redisConf.getValueSerializerType()).orElse(JDK);
+        RedisSerializer<Object> valueSerializer = VALUE_SERIALIZERS.get(valueSerializerType);
+        if (isNull(valueSerializer))
+            throw new RuntimeException("unknown valueSerializerType -> " + valueSerializerType);
+
+        CompressionType compressionType = ofNullable(redisConf.getCompressionType()).orElse(NONE);
+        if (compressionType == NONE)
+            return valueSerializer;
+
+        return new ProCompressingRedisSerializer<>(valueSerializer, compressionType,
+                ofNullable(redisConf.getCompressionThreshold()).orElse(DEFAULT_COMPRESSION_THRESHOLD));
+    }
+
     /**
      * generate template
      *
@@ -290,11 +443,13 @@ public final class ProRedisGenerator {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
 
+        RedisSerializer<Object> valueSerializer = generateValueSerializer(redisConf);
+
         redisTemplate.setKeySerializer(RedisSerializer.string());
-        redisTemplate.setValueSerializer(JDK_REDIS_SERIALIZER);
-        redisTemplate.setKeySerializer(RedisSerializer.string());
-        redisTemplate.setHashValueSerializer(JDK_REDIS_SERIALIZER);
-        redisTemplate.setDefaultSerializer(JDK_REDIS_SERIALIZER);
+        redisTemplate.setValueSerializer(valueSerializer);
+        redisTemplate.setHashKeySerializer(JDK_REDIS_SERIALIZER);
+        redisTemplate.setHashValueSerializer(valueSerializer);
+        redisTemplate.setDefaultSerializer(valueSerializer);
 
         redisTemplate.setExposeConnection(ofNullable(redisConf.getExposeConnection()).orElse(false));
 
@@ -302,6 +457,33 @@ public final class ProRedisGenerator {
     }
 
 
+    /**
+     * generate reactive template
+     *
+     * @param reactiveRedisConnectionFactory
+     * @return
+     */
+    public static ReactiveStringRedisTemplate generateReactiveStringRedisTemplate(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        if (isNull(reactiveRedisConnectionFactory))
+            throw new RuntimeException("reactiveRedisConnectionFactory can't be null");
+
+        return new ReactiveStringRedisTemplate(reactiveRedisConnectionFactory);
+    }
+
+    /**
+     * generate reactive template, serialize as same as object redis template
+     *
+     * @param reactiveRedisConnectionFactory
+     * @return
+     */
+    public static ReactiveRedisTemplate<String, Object> generateReactiveObjectRedisTemplate(RedisConf redisConf, ReactiveRedisConnectionFactory reactiveRedisConnectionFactory) {
+        confAsserter(redisConf);
+        if (isNull(reactiveRedisConnectionFactory))
+            throw new RuntimeException("reactiveRedisConnectionFactory can't be null");
+
+        return new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, generateObjectRedisTemplateSerializationContext(generateValueSerializer(redisConf)));
+    }
+
     /**
      * generate template
      *
@@ -309,11 +491,22 @@ public final class ProRedisGenerator {
      * @return
      */
     public static <T> CacheManager generateCacheManager(RedisConf redisConf, RedisConnectionFactory redisConnectionFactory) {
+        return generateRedisCacheManager(redisConf, redisConnectionFactory);
+    }
+
+    /**
+     * generate redis cache manager
+     *
+     * @param redisConf
+     * @param redisConnectionFactory
+     * @return
+     */
+    private static <T> RedisCacheManager generateRedisCacheManager(RedisConf redisConf, RedisConnectionFactory redisConnectionFactory) {
         confAsserter(redisConf);
         if (isNull(redisConnectionFactory))
             throw new RuntimeException("redisConnectionFactory can't be null");
 
-        RedisSerializationContext<String, T> objectRedisSerializationContext = generateObjectRedisSerializationContext();
+        RedisSerializationContext<String, T> objectRedisSerializationContext = generateObjectRedisSerializationContext(generateValueSerializer(redisConf));
 
         return RedisCacheManager.builder(RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory))
                 .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
@@ -324,6 +517,29 @@ public final class ProRedisGenerator {
                 ).build();
     }
 
+    /**
+     * generate two tier cache manager, local entries live at most entryTtl
+     *
+     * @param redisConf
+     * @param redisConnectionFactory
+     * @param localMaxSize
+     * @return
+     */
+    public static CacheManager generateTwoTierCacheManager(RedisConf redisConf, RedisConnectionFactory redisConnectionFactory, int localMaxSize) {
+        confAsserter(redisConf);
+        if (isNull(redisConnectionFactory))
+            throw new RuntimeException("redisConnectionFactory can't be null");
+        if (localMaxSize < 1)
+            throw new RuntimeException("localMaxSize can't be less than 1");
+
+        // the wrapped manager is not a bean, initialize its caches here
+        RedisCacheManager redisCacheManager = generateRedisCacheManager(redisConf, redisConnectionFactory);
+        redisCacheManager.afterPropertiesSet();
+
+        return new ProTwoTierCacheManager(redisCacheManager, redisConnectionFactory,
+                CACHE_MANAGER_INVALIDATION_CHANNEL, localMaxSize, Duration.of(redisConf.getEntryTtl(), SECONDS).toMillis());
+    }
+
     /**
      * generate cluster configuration
      *
@@ -372,22 +588,39 @@ public final class ProRedisGenerator {
         return redisStandaloneConfiguration;
     }
 
+    /**
+     * generate serialization context same as object redis template
+     *
+     * @param valueSerializer
+     * @return
+     */
+    private static RedisSerializationContext<String, Object> generateObjectRedisTemplateSerializationContext(RedisSerializer<Object> valueSerializer) {
+        RedisSerializationContext.RedisSerializationContextBuilder<String, Object> contextBuilder =
+                RedisSerializationContext.newSerializationContext(valueSerializer);
+
+        return contextBuilder
+                .key(STRING_REDIS_SERIALIZER).value(valueSerializer)
+                .hashKey(JDK_REDIS_SERIALIZER).hashValue(valueSerializer)
+                .build();
+    }
+
     /**
      * generate object redis serialization context
      *
+     * @param valueSerializer
      * @param <T>
      * @return
      */
-    private static <T> RedisSerializationContext<String, T> generateObjectRedisSerializationContext() {
+    private static <T> RedisSerializationContext<String, T> generateObjectRedisSerializationContext(RedisSerializer<Object> valueSerializer) {
         @SuppressWarnings("unchecked")
-        RedisSerializer<T> jdkSerializationRedisSerializer = (RedisSerializer<T>) new JdkSerializationRedisSerializer();
+        RedisSerializer<T> typedValueSerializer = (RedisSerializer<T>) valueSerializer;
 
         RedisSerializationContext.RedisSerializationContextBuilder<String, T> contextBuilder =
                 RedisSerializationContext.newSerializationContext();
 
         return contextBuilder
-                .key(STRING_REDIS_SERIALIZER).value(jdkSerializationRedisSerializer)
-                .hashKey(STRING_REDIS_SERIALIZER).hashValue(jdkSerializationRedisSerializer)
+                .key(STRING_REDIS_SERIALIZER).value(typedValueSerializer)
+                .hashKey(STRING_REDIS_SERIALIZER).hashValue(typedValueSerializer)
                 .build();
     }
 
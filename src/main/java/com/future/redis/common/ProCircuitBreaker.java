@@ -0,0 +1,119 @@
+package com.future.redis.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * circuit breaker driven by errors and latency, calls failing or slower than slowCallMillis count as failures
+ * <p>
+ * closed -> open after failureThreshold consecutive failures, open -> half open after openMillis,
+ * half open lets one probe call through, the probe closes the breaker on success or opens it again on failure
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProCircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+
+    private final int failureThreshold;
+
+    private final long slowCallMillis;
+
+    private final long openMillis;
+
+    private final AtomicReference<State> state;
+
+    private final AtomicInteger failures;
+
+    private volatile long openedAt;
+
+    public ProCircuitBreaker(String name, Integer failureThreshold, Long slowCallMillis, Long openMillis) {
+        if (isBlank(name))
+            throw new RuntimeException("name can't be blank");
+        if (isNull(failureThreshold) || isNull(slowCallMillis) || isNull(openMillis) || failureThreshold < 1 || slowCallMillis < 1L || openMillis < 1L)
+            throw new RuntimeException("failureThreshold, slowCallMillis and openMillis can't be null or less than 1");
+
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+        this.state = new AtomicReference<>(State.CLOSED);
+        this.failures = new AtomicInteger(0);
+    }
+
+    /**
+     * call permitted? an open breaker permits one probe call after openMillis
+     *
+     * @return
+     */
+    public boolean tryCall() {
+        State current = state.get();
+        if (current == State.CLOSED)
+            return true;
+
+        if (current == State.OPEN && currentTimeMillis() - openedAt >= openMillis)
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+
+        return false;
+    }
+
+    /**
+     * record the outcome of a permitted call
+     *
+     * @param elapsedMillis
+     * @param error
+     */
+    public void onCallComplete(long elapsedMillis, boolean error) {
+        if (error || elapsedMillis >= slowCallMillis) {
+            if (state.get() == State.HALF_OPEN || failures.incrementAndGet() >= failureThreshold)
+                open();
+            return;
+        }
+
+        failures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED))
+            LOGGER.warn("circuit breaker closed, name = {}", name);
+    }
+
+    /**
+     * current state
+     *
+     * @return
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    private void open() {
+        openedAt = currentTimeMillis();
+        failures.set(0);
+        if (state.getAndSet(State.OPEN) != State.OPEN)
+            LOGGER.warn("circuit breaker opened, name = {}, retry after {} ms", name, openMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "ProCircuitBreaker{" +
+                "name='" + name + '\'' +
+                ", failureThreshold=" + failureThreshold +
+                ", slowCallMillis=" + slowCallMillis +
+                ", openMillis=" + openMillis +
+                ", state=" + state.get() +
+                '}';
+    }
+
+}
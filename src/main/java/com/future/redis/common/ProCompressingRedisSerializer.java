@@ -0,0 +1,129 @@
+package com.future.redis.common;
+
+import com.future.redis.constant.CompressionType;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.*;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static com.future.redis.constant.CompressionType.DEFLATE;
+import static com.future.redis.constant.CompressionType.GZIP;
+import static com.future.redis.constant.CompressionType.NONE;
+
+/**
+ * compressing serializer, compress serialized values not smaller than threshold
+ * <p>
+ * compressed value -> 0x00, compression id, compressed bytes
+ * <p>
+ * other values are kept as the delegate wrote them, so values written before compression was enabled stay readable,
+ * the delegate output must not start with 0x00 (jdk and json never do)
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProCompressingRedisSerializer<T> implements RedisSerializer<T> {
+
+    private static final byte MARKER = 0x00;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final RedisSerializer<T> delegate;
+
+    private final CompressionType compressionType;
+
+    private final int threshold;
+
+    public ProCompressingRedisSerializer(RedisSerializer<T> delegate, CompressionType compressionType, int threshold) {
+        if (isNull(delegate) || isNull(compressionType) || compressionType == NONE)
+            throw new RuntimeException("delegate can't be null, compressionType can't be null or NONE");
+        if (threshold < 0)
+            throw new RuntimeException("threshold can't be less than 0");
+
+        this.delegate = delegate;
+        this.compressionType = compressionType;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes == null || bytes.length < threshold)
+            return bytes;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + HEADER_LENGTH);
+        out.write(MARKER);
+        out.write(compressionType.id);
+
+        Deflater deflater = compressionType == DEFLATE ? new Deflater(Deflater.BEST_SPEED) : null;
+        try (OutputStream compressor = compressor(compressionType, deflater, out)) {
+            compressor.write(bytes);
+        } catch (IOException e) {
+            throw new SerializationException("compress value failed", e);
+        } finally {
+            if (deflater != null)
+                deflater.end();
+        }
+
+        return out.toByteArray();
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH || bytes[0] != MARKER)
+            return delegate.deserialize(bytes);
+
+        CompressionType type = compressionType(bytes[1]);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+
+        try (InputStream decompressor = decompressor(type, new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH))) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = decompressor.read(buffer)) != -1)
+                out.write(buffer, 0, read);
+        } catch (IOException e) {
+            throw new SerializationException("decompress value failed", e);
+        }
+
+        return delegate.deserialize(out.toByteArray());
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return delegate.getTargetType();
+    }
+
+    private static OutputStream compressor(CompressionType type, Deflater deflater, OutputStream out) throws IOException {
+        if (type == DEFLATE)
+            return new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+        if (type == GZIP)
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+
+        throw new SerializationException("unknown compressionType -> " + type);
+    }
+
+    private static InputStream decompressor(CompressionType type, InputStream in) throws IOException {
+        if (type == DEFLATE)
+            return new InflaterInputStream(in);
+        if (type == GZIP)
+            return new GZIPInputStream(in, BUFFER_SIZE);
+
+        throw new SerializationException("unknown compressionType -> " + type);
+    }
+
+    private static CompressionType compressionType(byte id) {
+        for (CompressionType type : CompressionType.values())
+            if (type.id == id && type != NONE)
+                return type;
+
+        throw new SerializationException("unknown compression id -> " + id);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.future.redis.common;
+
+/**
+ * write behind counter handle, deltas are accumulated locally in striped cells and flushed by INCRBY periodically,
+ * or early once the local delta of the key reaches the flush threshold
+ * <p>
+ * handles are cheap and thread safe, handles of the same key share one local cell, the cell is looked up on every update,
+ * so a handle stays valid after the flusher retires an idle cell
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused"})
+public final class ProCounter {
+
+    private final String key;
+
+    private final ProCounterFlusher flusher;
+
+    ProCounter(String key, ProCounterFlusher flusher) {
+        this.key = key;
+        this.flusher = flusher;
+    }
+
+    /**
+     * increase by 1
+     */
+    public void incr() {
+        flusher.add(key, 1L);
+    }
+
+    /**
+     * increase
+     *
+     * @param delta
+     */
+    public void incr(long delta) {
+        flusher.add(key, delta);
+    }
+
+    /**
+     * decrease by 1
+     */
+    public void decr() {
+        flusher.add(key, -1L);
+    }
+
+    /**
+     * decrease
+     *
+     * @param delta
+     */
+    public void decr(long delta) {
+        flusher.add(key, -delta);
+    }
+
+    /**
+     * local delta not flushed yet
+     *
+     * @return
+     */
+    public long pending() {
+        return flusher.pending(key);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.future.redis.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * write behind counter flusher, flush local deltas of all counters as one pipelined INCRBY batch per interval,
+ * and flush the rest on close
+ * <p>
+ * with a flush threshold, a counter whose local delta reaches the threshold triggers an early flush on the flusher thread,
+ * the threshold is checked on a random sample of updates, so the local delta may pass it by about THRESHOLD_CHECK_MAX_INTERVAL updates,
+ * triggers are coalesced, at most one early flush is queued at a time
+ * <p>
+ * a failed batch is added back to the local cells and retried by the next flush,
+ * deltas the server already applied before the failure may be counted twice
+ * <p>
+ * a cell found empty by two flushes in a row is retired, an update racing with the retirement is moved to a new cell,
+ * an update whose thread stalls inside add across two flushes may still be lost or counted twice
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProCounterFlusher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProCounterFlusher.class);
+
+    private static final long THRESHOLD_CHECK_MAX_INTERVAL = 64L;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ConcurrentMap<String, Cell> pendings;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long flushThreshold;
+
+    private final int thresholdCheckInterval;
+
+    private final AtomicBoolean flushRequested;
+
+    public ProCounterFlusher(String name, StringRedisTemplate stringRedisTemplate, Duration interval) {
+        this(name, stringRedisTemplate, interval, null);
+    }
+
+    public ProCounterFlusher(String name, StringRedisTemplate stringRedisTemplate, Duration interval, Long flushThreshold) {
+        if (isNull(name) || isNull(stringRedisTemplate))
+            throw new RuntimeException("name can't be null, stringRedisTemplate can't be null");
+        if (isNull(interval) || interval.isNegative() || interval.isZero())
+            throw new RuntimeException("interval can't be null or less than 1ns");
+
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.pendings = new ConcurrentHashMap<>();
+        this.flushThreshold = isNull(flushThreshold) || flushThreshold < 1L ? 0L : flushThreshold;
+        // small thresholds are checked more often, sum() reads every cell of the adder
+        this.thresholdCheckInterval = (int) Math.max(Math.min(this.flushThreshold >> 4, THRESHOLD_CHECK_MAX_INTERVAL), 1L);
+        this.flushRequested = new AtomicBoolean(false);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(interval.toMillis(), 1L);
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, MILLISECONDS);
+    }
+
+    /**
+     * get counter handle
+     *
+     * @param key
+     * @return
+     */
+    public ProCounter counter(String key) {
+        if (isNull(key))
+            throw new RuntimeException("key can't be null");
+
+        return new ProCounter(key, this);
+    }
+
+    /**
+     * add delta to the local cell of key
+     *
+     * @param key
+     * @param delta
+     */
+    void add(String key, long delta) {
+        Cell pending;
+        for (; ; ) {
+            pending = pendings.get(key);
+            if (pending == null)
+                pending = pendings.computeIfAbsent(key, k -> new Cell());
+
+            pending.add(delta);
+            if (pendings.get(key) == pending)
+                break;
+
+            // retired by a flush between lookup and add, move the delta to the live cell
+            pending.add(-delta);
+        }
+
+        if (flushThreshold > 0L && ThreadLocalRandom.current().nextInt(thresholdCheckInterval) == 0
+                && Math.abs(pending.sum()) >= flushThreshold)
+            requestFlush();
+    }
+
+    /**
+     * local delta of key not flushed yet
+     *
+     * @param key
+     * @return
+     */
+    long pending(String key) {
+        Cell pending = pendings.get(key);
+        return pending != null ? pending.sum() : 0L;
+    }
+
+    /**
+     * flush local deltas now
+     *
+     * @return flushed counters count
+     */
+    public synchronized int flush() {
+        List<String> keys = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+
+        long delta;
+        Cell cell;
+        for (Map.Entry<String, Cell> entry : pendings.entrySet()) {
+            cell = entry.getValue();
+            delta = cell.sum();
+            if (delta == 0L) {
+                // idle for a whole interval, handles look up a new cell on the next update
+                if (cell.idle)
+                    pendings.remove(entry.getKey(), cell);
+                else
+                    cell.idle = true;
+                continue;
+            }
+
+            // subtract instead of reset, concurrent adds are never lost
+            cell.idle = false;
+            cell.add(-delta);
+            keys.add(entry.getKey());
+            deltas.add(delta);
+        }
+
+        if (keys.isEmpty())
+            return 0;
+
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                incrBy(connection, keys, deltas);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < keys.size(); i++)
+                pendings.computeIfAbsent(keys.get(i), k -> new Cell()).add(deltas.get(i));
+            throw e;
+        }
+
+        return keys.size();
+    }
+
+    private static void incrBy(RedisConnection connection, List<String> keys, List<Long> deltas) {
+        for (int i = 0; i < keys.size(); i++)
+            connection.stringCommands().incrBy(keys.get(i).getBytes(UTF_8), deltas.get(i));
+    }
+
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true))
+            return;
+
+        try {
+            scheduler.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            // closing, the final flush takes the rest
+            flushRequested.set(false);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Throwable t) {
+            LOGGER.error("flush counters failed, t = {}", t.toString());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(1L, SECONDS))
+                scheduler.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flushQuietly();
+    }
+
+    /**
+     * local cell of a counter, idle is read and written by flushes only
+     */
+    private static final class Cell extends LongAdder {
+
+        private static final long serialVersionUID = 4417213926043598145L;
+
+        private boolean idle;
+    }
+
+}
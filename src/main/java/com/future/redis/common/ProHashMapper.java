@@ -0,0 +1,313 @@
+package com.future.redis.common;
+
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import static com.future.base.util.base.ProChecker.isNull;
+
+/**
+ * pojo <-> hash mapper, every non static non transient field is stored as one hash field,
+ * serialized with the hash key and hash value serializers of the template, so fields are readable by RedisUtil.hget
+ * <p>
+ * partial reads load the given fields by HMGET, tracked objects write back only the fields whose serialized form changed
+ * <p>
+ * the type requires a no-arg constructor
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProHashMapper<T> {
+
+    private final RedisTemplate<String, ?> redisTemplate;
+
+    private final Constructor<T> constructor;
+
+    private final Map<String, Field> fields;
+
+    private final RedisSerializer<String> keySerializer;
+
+    private final RedisSerializer<Object> hashKeySerializer;
+
+    private final RedisSerializer<Object> hashValueSerializer;
+
+    @SuppressWarnings("unchecked")
+    public ProHashMapper(Class<T> type, RedisTemplate<String, ?> redisTemplate) {
+        if (isNull(type) || isNull(redisTemplate))
+            throw new RuntimeException("type can't be null, redisTemplate can't be null");
+
+        this.redisTemplate = redisTemplate;
+        try {
+            this.constructor = type.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("type must have a no-arg constructor -> " + type.getName());
+        }
+
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass())
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic() || fields.containsKey(field.getName()))
+                    continue;
+                field.setAccessible(true);
+                fields.put(field.getName(), field);
+            }
+        if (fields.isEmpty())
+            throw new RuntimeException("type has no mappable field -> " + type.getName());
+
+        this.fields = Collections.unmodifiableMap(fields);
+        this.keySerializer = (RedisSerializer<String>) redisTemplate.getKeySerializer();
+        this.hashKeySerializer = (RedisSerializer<Object>) redisTemplate.getHashKeySerializer();
+        this.hashValueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+    }
+
+    /**
+     * mapped field names
+     *
+     * @return
+     */
+    public Set<String> fieldNames() {
+        return fields.keySet();
+    }
+
+    /**
+     * write all fields, null fields are removed from the hash
+     *
+     * @param key
+     * @param value
+     */
+    public void put(String key, T value) {
+        if (isNull(key) || isNull(value))
+            throw new RuntimeException("key can't be null, value can't be null");
+
+        write(key, serializeFields(value, fields.keySet()), null);
+    }
+
+    /**
+     * read all fields
+     *
+     * @param key
+     * @return null if the hash does not exist
+     */
+    public T get(String key) {
+        if (isNull(key))
+            throw new RuntimeException("key can't be null");
+
+        byte[] rawKey = keySerializer.serialize(key);
+        Map<byte[], byte[]> entries = redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) connection -> connection.hashCommands().hGetAll(rawKey));
+        if (isNull(entries) || entries.isEmpty())
+            return null;
+
+        T instance = newInstance();
+        for (Map.Entry<byte[], byte[]> entry : entries.entrySet())
+            setField(instance, String.valueOf(hashKeySerializer.deserialize(entry.getKey())), entry.getValue());
+
+        return instance;
+    }
+
+    /**
+     * read the given fields by HMGET, other fields keep their defaults
+     *
+     * @param key
+     * @param fieldNames
+     * @return null if none of the fields exists
+     */
+    public T get(String key, String... fieldNames) {
+        Tracked<T> tracked = track(key, fieldNames);
+        return tracked.snapshot.isEmpty() ? null : tracked.value;
+    }
+
+    /**
+     * read the given fields, or all fields if none given, and track them for dirty write back
+     *
+     * @param key
+     * @param fieldNames
+     * @return tracked object, the value is a new instance if none of the fields exists
+     */
+    public Tracked<T> track(String key, String... fieldNames) {
+        if (isNull(key))
+            throw new RuntimeException("key can't be null");
+
+        List<String> names = fieldNames == null || fieldNames.length == 0 ? new ArrayList<>(fields.keySet()) : Arrays.asList(fieldNames);
+        for (String name : names)
+            field(name);
+
+        byte[] rawKey = keySerializer.serialize(key);
+        byte[][] rawFields = new byte[names.size()][];
+        for (int i = 0; i < rawFields.length; i++)
+            rawFields[i] = hashKeySerializer.serialize(names.get(i));
+
+        List<byte[]> rawValues = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.hashCommands().hMGet(rawKey, rawFields));
+
+        T instance = newInstance();
+        Map<String, byte[]> snapshot = new HashMap<>((int) (names.size() / 0.75f) + 1);
+        byte[] rawValue;
+        for (int i = 0; i < names.size(); i++) {
+            rawValue = rawValues != null ? rawValues.get(i) : null;
+            if (rawValue == null)
+                continue;
+            setField(instance, names.get(i), rawValue);
+            snapshot.put(names.get(i), rawValue);
+        }
+
+        return new Tracked<>(this, key, instance, new LinkedHashSet<>(names), snapshot);
+    }
+
+    /**
+     * write back the tracked fields whose serialized form changed
+     *
+     * @param tracked
+     * @return changed fields count
+     */
+    public int save(Tracked<T> tracked) {
+        if (isNull(tracked) || tracked.mapper != this)
+            throw new RuntimeException("tracked can't be null and must be created by this mapper");
+
+        Map<String, byte[]> current = serializeFields(tracked.value, tracked.fieldNames);
+
+        Map<String, byte[]> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> entry : current.entrySet())
+            if (!Arrays.equals(entry.getValue(), tracked.snapshot.get(entry.getKey())))
+                changed.put(entry.getKey(), entry.getValue());
+
+        Set<String> removed = new LinkedHashSet<>(tracked.snapshot.keySet());
+        removed.removeAll(current.keySet());
+
+        if (changed.isEmpty() && removed.isEmpty())
+            return 0;
+
+        write(tracked.key, changed, removed);
+
+        tracked.snapshot.putAll(changed);
+        tracked.snapshot.keySet().removeAll(removed);
+
+        return changed.size() + removed.size();
+    }
+
+    private void write(String key, Map<String, byte[]> values, Set<String> removedFieldNames) {
+        byte[] rawKey = keySerializer.serialize(key);
+
+        Map<byte[], byte[]> rawValues = new LinkedHashMap<>((int) (values.size() / 0.75f) + 1);
+        for (Map.Entry<String, byte[]> entry : values.entrySet())
+            rawValues.put(hashKeySerializer.serialize(entry.getKey()), entry.getValue());
+
+        Set<String> removed = new LinkedHashSet<>(fields.keySet());
+        if (removedFieldNames != null)
+            removed.retainAll(removedFieldNames);
+        else
+            removed.removeAll(values.keySet());
+
+        byte[][] rawRemoved = new byte[removed.size()][];
+        int i = 0;
+        for (String name : removed)
+            rawRemoved[i++] = hashKeySerializer.serialize(name);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisHashCommands hashCommands = connection.hashCommands();
+            if (!rawValues.isEmpty())
+                hashCommands.hMSet(rawKey, rawValues);
+            if (rawRemoved.length > 0)
+                hashCommands.hDel(rawKey, rawRemoved);
+            return null;
+        });
+    }
+
+    private Map<String, byte[]> serializeFields(T value, Collection<String> names) {
+        Map<String, byte[]> serialized = new LinkedHashMap<>((int) (names.size() / 0.75f) + 1);
+        Object fieldValue;
+        for (String name : names) {
+            try {
+                fieldValue = field(name).get(value);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("field can't be read -> " + name, e);
+            }
+            if (fieldValue != null)
+                serialized.put(name, hashValueSerializer.serialize(fieldValue));
+        }
+
+        return serialized;
+    }
+
+    private void setField(T instance, String name, byte[] rawValue) {
+        Field field = fields.get(name);
+        if (field == null)
+            return;
+
+        try {
+            field.set(instance, hashValueSerializer.deserialize(rawValue));
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new RuntimeException("field can't be set -> " + name, e);
+        }
+    }
+
+    private Field field(String name) {
+        Field field = fields.get(name);
+        if (isNull(field))
+            throw new RuntimeException("unknown field -> " + name);
+
+        return field;
+    }
+
+    private T newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("instance can't be created", e);
+        }
+    }
+
+    /**
+     * tracked object, holds the serialized form of the fields as loaded or last saved
+     *
+     * @param <T>
+     */
+    public static final class Tracked<T> {
+
+        private final ProHashMapper<T> mapper;
+
+        private final String key;
+
+        private final T value;
+
+        private final Set<String> fieldNames;
+
+        private final Map<String, byte[]> snapshot;
+
+        private Tracked(ProHashMapper<T> mapper, String key, T value, Set<String> fieldNames, Map<String, byte[]> snapshot) {
+            this.mapper = mapper;
+            this.key = key;
+            this.value = value;
+            this.fieldNames = fieldNames;
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * write back changed fields
+         *
+         * @return changed fields count
+         */
+        public int save() {
+            return mapper.save(this);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public Set<String> getFieldNames() {
+            return fieldNames;
+        }
+    }
+
+}
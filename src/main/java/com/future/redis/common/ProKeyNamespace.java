@@ -0,0 +1,193 @@
+package com.future.redis.common;
+
+import io.lettuce.core.cluster.SlotHash;
+
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * key namespace, cache the encoded prefix and build keys of the namespace with one allocation
+ * <p>
+ * if the prefix carries a hash tag like 'APP_{order}_', all keys of the namespace are in one slot, and the slot is cached
+ * <p>
+ * tagged keys wrap the id as the hash tag, keys of one id with different suffixes are in one slot
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProKeyNamespace {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final byte TAG_START = '{', TAG_END = '}';
+
+    private final String prefix;
+
+    private final byte[] rawPrefix;
+
+    private final Integer slot;
+
+    public ProKeyNamespace(String prefix) {
+        if (isBlank(prefix))
+            throw new RuntimeException("prefix can't be blank");
+
+        this.prefix = prefix;
+        this.rawPrefix = prefix.getBytes(UTF_8);
+        this.slot = hashTagged(prefix) ? SlotHash.getSlot(rawPrefix) : null;
+    }
+
+    /**
+     * key
+     *
+     * @param id
+     * @return
+     */
+    public String key(String id) {
+        if (isNull(id))
+            throw new RuntimeException("id can't be null");
+
+        return prefix.concat(id);
+    }
+
+    /**
+     * encoded key
+     *
+     * @param id
+     * @return
+     */
+    public byte[] rawKey(String id) {
+        return rawKey(id, EMPTY);
+    }
+
+    /**
+     * encoded key with an encoded suffix
+     *
+     * @param id
+     * @param rawSuffix
+     * @return
+     */
+    public byte[] rawKey(String id, byte[] rawSuffix) {
+        if (isNull(id) || isNull(rawSuffix))
+            throw new RuntimeException("id can't be null, rawSuffix can't be null");
+
+        int idLength = id.length();
+        if (!ascii(id)) {
+            byte[] rawId = id.getBytes(UTF_8);
+            return concat(rawPrefix, rawId, rawSuffix);
+        }
+
+        byte[] rawKey = new byte[rawPrefix.length + idLength + rawSuffix.length];
+        System.arraycopy(rawPrefix, 0, rawKey, 0, rawPrefix.length);
+        for (int i = 0; i < idLength; i++)
+            rawKey[rawPrefix.length + i] = (byte) id.charAt(i);
+        System.arraycopy(rawSuffix, 0, rawKey, rawPrefix.length + idLength, rawSuffix.length);
+
+        return rawKey;
+    }
+
+    /**
+     * encoded key with the id as hash tag, prefix{id}suffix
+     *
+     * @param id
+     * @param rawSuffix
+     * @return
+     */
+    public byte[] rawTaggedKey(String id, byte[] rawSuffix) {
+        if (isNull(id) || id.isEmpty())
+            throw new RuntimeException("id can't be null or ''");
+        if (isNull(rawSuffix))
+            throw new RuntimeException("rawSuffix can't be null");
+
+        byte[] rawId = ascii(id) ? null : id.getBytes(UTF_8);
+        int idLength = rawId == null ? id.length() : rawId.length;
+
+        byte[] rawKey = new byte[rawPrefix.length + idLength + rawSuffix.length + 2];
+        System.arraycopy(rawPrefix, 0, rawKey, 0, rawPrefix.length);
+
+        int offset = rawPrefix.length;
+        rawKey[offset++] = TAG_START;
+        if (rawId == null)
+            for (int i = 0; i < idLength; i++)
+                rawKey[offset++] = (byte) id.charAt(i);
+        else {
+            System.arraycopy(rawId, 0, rawKey, offset, idLength);
+            offset += idLength;
+        }
+        rawKey[offset++] = TAG_END;
+        System.arraycopy(rawSuffix, 0, rawKey, offset, rawSuffix.length);
+
+        return rawKey;
+    }
+
+    /**
+     * prefix
+     *
+     * @return
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * encoded prefix, must not be modified
+     *
+     * @return
+     */
+    public byte[] getRawPrefix() {
+        return rawPrefix;
+    }
+
+    /**
+     * hash slot of all keys of the namespace, null if the prefix has no hash tag
+     *
+     * @return
+     */
+    public Integer getSlot() {
+        return slot;
+    }
+
+    /**
+     * encode to utf-8
+     *
+     * @param str
+     * @return
+     */
+    public static byte[] encode(String str) {
+        return str.getBytes(UTF_8);
+    }
+
+    private static boolean hashTagged(String str) {
+        int start = str.indexOf('{');
+        if (start < 0)
+            return false;
+
+        int end = str.indexOf('}', start + 1);
+        return end > start + 1;
+    }
+
+    private static boolean ascii(String str) {
+        for (int i = 0, l = str.length(); i < l; i++)
+            if (str.charAt(i) >= 0x80)
+                return false;
+
+        return true;
+    }
+
+    private static byte[] concat(byte[] head, byte[] body, byte[] tail) {
+        byte[] bytes = new byte[head.length + body.length + tail.length];
+        System.arraycopy(head, 0, bytes, 0, head.length);
+        System.arraycopy(body, 0, bytes, head.length, body.length);
+        System.arraycopy(tail, 0, bytes, head.length + body.length, tail.length);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ProKeyNamespace{" +
+                "prefix='" + prefix + '\'' +
+                ", slot=" + slot +
+                '}';
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.future.redis.common;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Optional.ofNullable;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * key scanner, iterate keys by SCAN cursors lazily, scan every upstream node in parallel when cluster
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProKeyScanner {
+
+    private final ProNativeConnection nativeConnection;
+
+    public ProKeyScanner(ProNativeConnection nativeConnection) {
+        if (isNull(nativeConnection))
+            throw new RuntimeException("nativeConnection can't be null");
+
+        this.nativeConnection = nativeConnection;
+    }
+
+    /**
+     * scan raw keys lazily, one page per node is in flight at most
+     *
+     * @param pattern
+     * @param batchSize count hint of each SCAN
+     * @return
+     */
+    public Stream<byte[]> scanRaw(String pattern, int batchSize) {
+        if (isBlank(pattern) || batchSize < 1)
+            throw new RuntimeException("pattern can't be blank, batchSize can't be less than 1");
+
+        ScanArgs scanArgs = ScanArgs.Builder.matches(pattern).limit(batchSize);
+        Iterator<byte[]> iterator = new KeyIterator(nativeConnection.upstreamAsyncs(), scanArgs);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, ORDERED | NONNULL), false);
+    }
+
+    /**
+     * scan keys lazily
+     *
+     * @param pattern
+     * @param batchSize count hint of each SCAN
+     * @return
+     */
+    public Stream<String> scan(String pattern, int batchSize) {
+        return scanRaw(pattern, batchSize).map(k -> new String(k, UTF_8));
+    }
+
+    /**
+     * unlink keys matched by pattern, keys are buffered up to batchSize before each UNLINK
+     *
+     * @param pattern
+     * @param batchSize
+     * @return unlinked count
+     */
+    public long unlinkByPattern(String pattern, int batchSize) {
+        RedisClusterAsyncCommands<byte[], byte[]> async = nativeConnection.async();
+
+        List<byte[]> buffer = new ArrayList<>(batchSize);
+        long[] count = {0L};
+
+        scanRaw(pattern, batchSize).forEach(key -> {
+            buffer.add(key);
+            if (buffer.size() >= batchSize) {
+                count[0] += unlink(async, buffer);
+                buffer.clear();
+            }
+        });
+
+        if (!buffer.isEmpty())
+            count[0] += unlink(async, buffer);
+
+        return count[0];
+    }
+
+    private long unlink(RedisClusterAsyncCommands<byte[], byte[]> async, List<byte[]> keys) {
+        byte[][] rawKeys = keys.toArray(new byte[0][]);
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (List<Integer> indexes : nativeConnection.partitionBySlot(rawKeys).values()) {
+            byte[][] slotKeys = new byte[indexes.size()][];
+            for (int i = 0; i < slotKeys.length; i++)
+                slotKeys[i] = rawKeys[indexes.get(i)];
+            futures.add(async.unlink(slotKeys).toCompletableFuture());
+        }
+
+        long count = 0L;
+        for (CompletableFuture<Long> future : futures)
+            count += ofNullable(join(future)).orElse(0L);
+
+        return count;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * iterator over the cursors of all nodes, the next page of a node is requested as soon as its current page arrives
+     */
+    private static final class KeyIterator implements Iterator<byte[]> {
+
+        private final ScanArgs scanArgs;
+
+        private final List<NodeCursor> pendingNodes;
+
+        private Iterator<byte[]> page;
+
+        private KeyIterator(List<RedisClusterAsyncCommands<byte[], byte[]>> asyncs, ScanArgs scanArgs) {
+            this.scanArgs = scanArgs;
+            this.pendingNodes = new LinkedList<>();
+            this.page = Collections.emptyIterator();
+
+            for (RedisClusterAsyncCommands<byte[], byte[]> async : asyncs)
+                pendingNodes.add(new NodeCursor(async, async.scan(ScanCursor.INITIAL, scanArgs).toCompletableFuture()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext()) {
+                if (pendingNodes.isEmpty())
+                    return false;
+
+                page = nextPage();
+            }
+
+            return true;
+        }
+
+        @Override
+        public byte[] next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            return page.next();
+        }
+
+        private Iterator<byte[]> nextPage() {
+            NodeCursor nodeCursor = null;
+            for (NodeCursor nc : pendingNodes)
+                if (nc.future.isDone()) {
+                    nodeCursor = nc;
+                    break;
+                }
+
+            if (nodeCursor == null) {
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[pendingNodes.size()];
+                int i = 0;
+                for (NodeCursor nc : pendingNodes)
+                    futures[i++] = nc.future;
+                join(CompletableFuture.anyOf(futures));
+                return Collections.emptyIterator();
+            }
+
+            KeyScanCursor<byte[]> cursor = join(nodeCursor.future);
+            if (cursor.isFinished())
+                pendingNodes.remove(nodeCursor);
+            else
+                nodeCursor.future = nodeCursor.async.scan(cursor, scanArgs).toCompletableFuture();
+
+            return cursor.getKeys().iterator();
+        }
+    }
+
+    private static final class NodeCursor {
+
+        private final RedisClusterAsyncCommands<byte[], byte[]> async;
+
+        private CompletableFuture<KeyScanCursor<byte[]>> future;
+
+        private NodeCursor(RedisClusterAsyncCommands<byte[], byte[]> async, CompletableFuture<KeyScanCursor<byte[]>> future) {
+            this.async = async;
+            this.future = future;
+        }
+    }
+
+}
@@ -0,0 +1,312 @@
+package com.future.redis.common;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.SlotHash;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.cluster.models.partitions.Partitions;
+import io.lettuce.core.cluster.models.partitions.RedisClusterNode;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.protocol.AsyncCommand;
+import io.lettuce.core.protocol.RedisCommand;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static io.lettuce.core.cluster.models.partitions.RedisClusterNode.NodeFlag.MASTER;
+import static io.lettuce.core.cluster.models.partitions.RedisClusterNode.NodeFlag.UPSTREAM;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+
+/**
+ * dedicated native lettuce connection with raw byte[] codec, shares client and resources with the connection factory
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProNativeConnection implements AutoCloseable {
+
+    private static final String MOVED = "MOVED", ASK = "ASK";
+
+    private final AbstractRedisClient client;
+
+    private final StatefulConnection<byte[], byte[]> connection;
+
+    private final RedisClusterAsyncCommands<byte[], byte[]> async;
+
+    private final RedisClusterCommands<byte[], byte[]> sync;
+
+    private final boolean cluster;
+
+    public ProNativeConnection(LettuceConnectionFactory lettuceConnectionFactory) {
+        if (isNull(lettuceConnectionFactory))
+            throw new RuntimeException("lettuceConnectionFactory can't be null");
+
+        this.client = lettuceConnectionFactory.getRequiredNativeClient();
+
+        if (client instanceof RedisClusterClient) {
+            StatefulRedisClusterConnection<byte[], byte[]> clusterConnection = ((RedisClusterClient) client).connect(ByteArrayCodec.INSTANCE);
+            this.connection = clusterConnection;
+            this.async = clusterConnection.async();
+            this.sync = clusterConnection.sync();
+            this.cluster = true;
+        } else if (client instanceof RedisClient) {
+            StatefulRedisConnection<byte[], byte[]> redisConnection = ((RedisClient) client).connect(ByteArrayCodec.INSTANCE);
+            this.connection = redisConnection;
+            this.async = redisConnection.async();
+            this.sync = redisConnection.sync();
+            this.cluster = false;
+        } else {
+            throw new RuntimeException("unknown native client -> " + client);
+        }
+    }
+
+    /**
+     * async commands, cluster commands are routed by slot
+     *
+     * @return
+     */
+    public RedisClusterAsyncCommands<byte[], byte[]> async() {
+        return async;
+    }
+
+    /**
+     * sync commands with the command timeout of the client, cluster commands are routed by slot
+     *
+     * @return
+     */
+    public RedisClusterCommands<byte[], byte[]> sync() {
+        return sync;
+    }
+
+    /**
+     * stateful connection
+     *
+     * @return
+     */
+    public StatefulConnection<byte[], byte[]> getConnection() {
+        return connection;
+    }
+
+    /**
+     * native client
+     *
+     * @return
+     */
+    public AbstractRedisClient getClient() {
+        return client;
+    }
+
+    /**
+     * cluster connection?
+     *
+     * @return
+     */
+    public boolean isCluster() {
+        return cluster;
+    }
+
+    /**
+     * async commands of every upstream node, only the connection itself when the server is standalone
+     *
+     * @return
+     */
+    @SuppressWarnings("deprecation")
+    public List<RedisClusterAsyncCommands<byte[], byte[]>> upstreamAsyncs() {
+        if (!cluster)
+            return singletonList(async);
+
+        StatefulRedisClusterConnection<byte[], byte[]> clusterConnection = (StatefulRedisClusterConnection<byte[], byte[]>) connection;
+
+        List<RedisClusterAsyncCommands<byte[], byte[]>> asyncs = new ArrayList<>();
+        for (RedisClusterNode node : clusterConnection.getPartitions())
+            if (node.is(UPSTREAM) || node.is(MASTER))
+                asyncs.add(clusterConnection.getConnection(node.getNodeId()).async());
+
+        return asyncs;
+    }
+
+    /**
+     * group key indexes by hash slot, all keys are in one group when the server is standalone
+     *
+     * @param rawKeys
+     * @return slot -> indexes of keys
+     */
+    public Map<Integer, List<Integer>> partitionBySlot(byte[][] rawKeys) {
+        int length = rawKeys.length;
+        if (!cluster) {
+            List<Integer> indexes = new ArrayList<>(length);
+            for (int i = 0; i < length; i++)
+                indexes.add(i);
+            return singletonMap(0, indexes);
+        }
+
+        Map<Integer, List<Integer>> partitions = new LinkedHashMap<>();
+        for (int i = 0; i < length; i++)
+            partitions.computeIfAbsent(SlotHash.getSlot(rawKeys[i]), s -> new ArrayList<>()).add(i);
+
+        return partitions;
+    }
+
+    /**
+     * send one command per slot, commands of the slots served by one node are written in one flush,
+     * commands redirected by MOVED or ASK are sent again through the cluster connection
+     *
+     * @param partitions     slot -> indexes of keys
+     * @param commandFactory (slot, indexes of keys) -> command
+     * @param <T>
+     * @return slot -> result
+     */
+    public <T> Map<Integer, CompletableFuture<T>> dispatchBySlot(Map<Integer, List<Integer>> partitions,
+                                                                 BiFunction<Integer, List<Integer>, RedisCommand<byte[], byte[], T>> commandFactory) {
+        Map<Integer, CompletableFuture<T>> results = new LinkedHashMap<>((int) (partitions.size() / 0.75f) + 1);
+        if (!cluster) {
+            List<AsyncCommand<byte[], byte[], T>> commands = new ArrayList<>(partitions.size());
+            AsyncCommand<byte[], byte[], T> command;
+            for (Map.Entry<Integer, List<Integer>> partition : partitions.entrySet()) {
+                command = new AsyncCommand<>(commandFactory.apply(partition.getKey(), partition.getValue()));
+                commands.add(command);
+                results.put(partition.getKey(), command);
+            }
+            connection.dispatch(commands);
+            return results;
+        }
+
+        StatefulRedisClusterConnection<byte[], byte[]> clusterConnection = (StatefulRedisClusterConnection<byte[], byte[]>) connection;
+        Partitions topology = clusterConnection.getPartitions();
+
+        Map<String, List<AsyncCommand<byte[], byte[], T>>> commandsByNode = new LinkedHashMap<>();
+        RedisClusterNode node;
+        AsyncCommand<byte[], byte[], T> command;
+        for (Map.Entry<Integer, List<Integer>> partition : partitions.entrySet()) {
+            Integer slot = partition.getKey();
+            List<Integer> indexes = partition.getValue();
+            node = topology.getPartitionBySlot(slot);
+            if (node == null) {
+                results.put(slot, dispatchRouted(commandFactory.apply(slot, indexes)));
+                continue;
+            }
+
+            command = new AsyncCommand<>(commandFactory.apply(slot, indexes));
+            commandsByNode.computeIfAbsent(node.getNodeId(), n -> new ArrayList<>()).add(command);
+            results.put(slot, redirectable(command, () -> dispatchRouted(commandFactory.apply(slot, indexes))));
+        }
+
+        for (Map.Entry<String, List<AsyncCommand<byte[], byte[], T>>> nodeCommands : commandsByNode.entrySet()) {
+            try {
+                clusterConnection.getConnection(nodeCommands.getKey()).dispatch(nodeCommands.getValue());
+            } catch (RuntimeException e) {
+                for (AsyncCommand<byte[], byte[], T> c : nodeCommands.getValue())
+                    c.completeExceptionally(e);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * multi get, cluster keys are split by slot and the results merged in order
+     *
+     * @param rawKeys
+     * @return values in order of keys, null if the key does not exist
+     */
+    public CompletableFuture<List<byte[]>> mget(byte[]... rawKeys) {
+        return async.mget(rawKeys).toCompletableFuture().thenApply(kvs -> {
+            List<byte[]> values = new ArrayList<>(kvs.size());
+            for (KeyValue<byte[], byte[]> kv : kvs)
+                values.add(kv.getValueOrElse(null));
+            return values;
+        });
+    }
+
+    /**
+     * evalsha, fall back to eval if the script is not cached by the server, all keys must be in one slot when cluster
+     *
+     * @param script
+     * @param outputType
+     * @param keys
+     * @param args
+     * @param <T>
+     * @return
+     */
+    public <T> CompletableFuture<T> evalsha(RedisScript<?> script, ScriptOutputType outputType, byte[][] keys, byte[]... args) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        async.<T>evalsha(script.getSha1(), outputType, keys, args).whenComplete((r, t) -> {
+            if (t == null) {
+                result.complete(r);
+                return;
+            }
+
+            Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            if (!(cause instanceof RedisNoScriptException)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            async.<T>eval(script.getScriptAsString(), outputType, keys, args).whenComplete((er, et) -> {
+                if (et == null)
+                    result.complete(er);
+                else
+                    result.completeExceptionally(et);
+            });
+        });
+
+        return result;
+    }
+
+    private <T> CompletableFuture<T> dispatchRouted(RedisCommand<byte[], byte[], T> command) {
+        AsyncCommand<byte[], byte[], T> asyncCommand = new AsyncCommand<>(command);
+        connection.dispatch(asyncCommand);
+        return asyncCommand;
+    }
+
+    private static <T> CompletableFuture<T> redirectable(CompletableFuture<T> future, Supplier<CompletableFuture<T>> resender) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((r, t) -> {
+            if (t == null) {
+                result.complete(r);
+                return;
+            }
+
+            Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            String message = cause.getMessage();
+            if (message == null || !(message.startsWith(MOVED) || message.startsWith(ASK))) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            resender.get().whenComplete((rr, rt) -> {
+                if (rt == null)
+                    result.complete(rr);
+                else
+                    result.completeExceptionally(rt);
+            });
+        });
+
+        return result;
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+
+}
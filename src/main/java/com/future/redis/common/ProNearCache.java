@@ -0,0 +1,202 @@
+package com.future.redis.common;
+
+import io.lettuce.core.*;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * near cache of string values, backed by server-assisted client side caching (RESP3 CLIENT TRACKING),
+ * reads are sent on a dedicated tracking connection and the server pushes invalidations of read keys to it
+ * <p>
+ * entries are evicted by lru when the size exceeds max size, the whole cache is dropped when the connection is lost
+ * <p>
+ * only standalone servers are supported, tracking is per node connection
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProNearCache implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProNearCache.class);
+
+    private static final String INVALIDATE_TYPE = "invalidate";
+
+    /**
+     * marker of keys known to be absent
+     */
+    private static final byte[] ABSENT = new byte[0];
+
+    private final RedisClient client;
+
+    private final StatefulRedisConnection<byte[], byte[]> connection;
+
+    private final Map<String, byte[]> cache;
+
+    private final PushListener pushListener;
+
+    private final RedisConnectionStateListener stateListener;
+
+    /**
+     * bumped on every invalidation, a loaded value is only cached if no invalidation arrived during the load
+     */
+    private final AtomicLong invalidations;
+
+    private volatile boolean tracking;
+
+    public ProNearCache(ProNativeConnection nativeConnection, Integer maxSize) {
+        if (isNull(nativeConnection))
+            throw new RuntimeException("nativeConnection can't be null");
+        if (nativeConnection.isCluster() || !(nativeConnection.getClient() instanceof RedisClient))
+            throw new RuntimeException("near cache only supports standalone server");
+        if (isNull(maxSize) || maxSize < 1)
+            throw new RuntimeException("maxSize can't be null or less than 1");
+
+        this.client = (RedisClient) nativeConnection.getClient();
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = -3470541237818349155L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > maxSize;
+            }
+        });
+        this.invalidations = new AtomicLong(0L);
+
+        this.connection = client.connect(ByteArrayCodec.INSTANCE);
+        this.pushListener = this::onPushMessage;
+        this.connection.addListener(pushListener);
+
+        this.stateListener = new RedisConnectionStateListener() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> channelHandler, SocketAddress socketAddress) {
+                if (channelHandler == connection && !tracking)
+                    enableTracking();
+            }
+
+            @Override
+            public void onRedisDisconnected(RedisChannelHandler<?, ?> channelHandler) {
+                if (channelHandler == connection) {
+                    tracking = false;
+                    invalidateAll();
+                }
+            }
+
+            @Override
+            public void onRedisExceptionCaught(RedisChannelHandler<?, ?> channelHandler, Throwable cause) {
+            }
+        };
+        this.client.addListener(stateListener);
+
+        try {
+            connection.sync().clientTracking(TrackingArgs.Builder.enabled());
+            tracking = true;
+        } catch (RuntimeException e) {
+            close();
+            throw new RuntimeException("client tracking can't be enabled, RESP3 (redis 6+) is required", e);
+        }
+    }
+
+    /**
+     * get raw value, read from redis and cache it on miss
+     *
+     * @param key
+     * @return null if the key does not exist
+     */
+    public byte[] get(String key) {
+        if (isNull(key))
+            throw new RuntimeException("key can't be null");
+
+        byte[] value = cache.get(key);
+        if (value != null)
+            return value == ABSENT ? null : value;
+
+        long stamp = invalidations.get();
+        value = connection.sync().get(key.getBytes(UTF_8));
+
+        if (tracking && stamp == invalidations.get())
+            cache.put(key, value == null ? ABSENT : value);
+
+        return value;
+    }
+
+    /**
+     * drop a key locally
+     *
+     * @param key
+     */
+    public void invalidate(String key) {
+        invalidations.incrementAndGet();
+        cache.remove(key);
+    }
+
+    /**
+     * drop all keys locally
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.clear();
+    }
+
+    /**
+     * cached size
+     *
+     * @return
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private void enableTracking() {
+        connection.async().clientTracking(TrackingArgs.Builder.enabled()).whenComplete((r, t) -> {
+            if (t == null) {
+                invalidateAll();
+                tracking = true;
+            } else {
+                LOGGER.error("client tracking can't be re-enabled, near cache bypassed, t = {}", t.toString());
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onPushMessage(PushMessage message) {
+        if (!INVALIDATE_TYPE.equals(message.getType()))
+            return;
+
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+
+        // null keys means flushall / flushdb on the server
+        if (keys instanceof List) {
+            invalidations.incrementAndGet();
+            for (Object key : (List<Object>) keys)
+                cache.remove(String.valueOf(key));
+        } else {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void close() {
+        tracking = false;
+        client.removeListener(stateListener);
+        connection.removeListener(pushListener);
+        connection.close();
+        cache.clear();
+    }
+
+}
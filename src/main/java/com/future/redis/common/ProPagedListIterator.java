@@ -0,0 +1,76 @@
+package com.future.redis.common;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+import static com.future.base.util.base.ProChecker.isNull;
+
+/**
+ * list iterator, load one page by LRANGE at a time
+ * <p>
+ * elements pushed or removed at the head during iteration may shift the pages
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProPagedListIterator<V> implements Iterator<V> {
+
+    private final BiFunction<Long, Long, List<V>> ranger;
+
+    private final int pageSize;
+
+    private long start;
+
+    private Iterator<V> page;
+
+    private boolean exhausted;
+
+    /**
+     * @param ranger   (start, end) -> elements, end inclusive
+     * @param pageSize
+     */
+    public ProPagedListIterator(BiFunction<Long, Long, List<V>> ranger, int pageSize) {
+        if (isNull(ranger))
+            throw new RuntimeException("ranger can't be null");
+        if (pageSize < 1)
+            throw new RuntimeException("pageSize can't be less than 1");
+
+        this.ranger = ranger;
+        this.pageSize = pageSize;
+        this.start = 0L;
+        this.page = Collections.emptyIterator();
+        this.exhausted = false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (page.hasNext())
+            return true;
+        if (exhausted)
+            return false;
+
+        List<V> elements = ranger.apply(start, start + pageSize - 1);
+        if (isNull(elements) || elements.isEmpty()) {
+            exhausted = true;
+            return false;
+        }
+
+        start += elements.size();
+        exhausted = elements.size() < pageSize;
+        page = elements.iterator();
+
+        return true;
+    }
+
+    @Override
+    public V next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        return page.next();
+    }
+
+}
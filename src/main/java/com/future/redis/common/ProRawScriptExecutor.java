@@ -0,0 +1,126 @@
+package com.future.redis.common;
+
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * script executor with pre-encoded keys and args, evalsha first and fall back to eval if the script is not cached by the server
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProRawScriptExecutor {
+
+    private static final String NO_SCRIPT_ERROR = "NOSCRIPT";
+
+    /**
+     * execute script
+     *
+     * @param redisTemplate
+     * @param script
+     * @param numKeys
+     * @param keysAndArgs
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T execute(RedisTemplate<?, ?> redisTemplate, RedisScript<T> script, int numKeys, byte[]... keysAndArgs) {
+        if (isNull(redisTemplate) || isNull(script))
+            throw new RuntimeException("redisTemplate can't be null, script can't be null");
+
+        ReturnType returnType = ReturnType.fromJavaType(script.getResultType());
+
+        return (T) redisTemplate.execute((RedisCallback<Object>) connection -> {
+            RedisScriptingCommands scriptingCommands = connection.scriptingCommands();
+            try {
+                return scriptingCommands.evalSha(script.getSha1(), returnType, numKeys, keysAndArgs);
+            } catch (RuntimeException e) {
+                if (!noScript(e))
+                    throw e;
+
+                return scriptingCommands.eval(script.getScriptAsString().getBytes(UTF_8), returnType, numKeys, keysAndArgs);
+            }
+        });
+    }
+
+    /**
+     * execute script once per keys and args in one pipeline, the entries failed with NOSCRIPT are retried by eval in a second pipeline,
+     * entries already executed are never replayed
+     *
+     * @param redisTemplate
+     * @param script
+     * @param numKeys
+     * @param keysAndArgsList
+     * @param <T>
+     * @return results in order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> executePipelined(RedisTemplate<?, ?> redisTemplate, RedisScript<T> script, int numKeys, List<byte[][]> keysAndArgsList) {
+        if (isNull(redisTemplate) || isNull(script) || isNull(keysAndArgsList))
+            throw new RuntimeException("redisTemplate can't be null, script can't be null, keysAndArgsList can't be null");
+        if (keysAndArgsList.isEmpty())
+            return new ArrayList<>(0);
+
+        ReturnType returnType = ReturnType.fromJavaType(script.getResultType());
+        RedisCallback<Object> pipeline = connection -> {
+            RedisScriptingCommands scriptingCommands = connection.scriptingCommands();
+            for (byte[][] keysAndArgs : keysAndArgsList)
+                scriptingCommands.evalSha(script.getSha1(), returnType, numKeys, keysAndArgs);
+            return null;
+        };
+
+        try {
+            return (List<T>) redisTemplate.executePipelined(pipeline, null);
+        } catch (RedisPipelineException e) {
+            List<Object> results = new ArrayList<>(e.getPipelineResult());
+            if (results.size() != keysAndArgsList.size())
+                throw e;
+
+            List<Integer> retryIndexes = new ArrayList<>();
+            Object result;
+            for (int i = 0; i < results.size(); i++) {
+                result = results.get(i);
+                if (!(result instanceof Throwable))
+                    continue;
+                if (!noScript((Throwable) result))
+                    throw e;
+
+                retryIndexes.add(i);
+            }
+            if (retryIndexes.isEmpty())
+                throw e;
+
+            byte[] scriptBody = script.getScriptAsString().getBytes(UTF_8);
+            List<Object> retried = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                RedisScriptingCommands scriptingCommands = connection.scriptingCommands();
+                for (Integer index : retryIndexes)
+                    scriptingCommands.eval(scriptBody, returnType, numKeys, keysAndArgsList.get(index));
+                return null;
+            }, null);
+
+            for (int i = 0; i < retryIndexes.size(); i++)
+                results.set(retryIndexes.get(i), retried.get(i));
+
+            return (List<T>) results;
+        }
+    }
+
+    private static boolean noScript(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause() == c ? null : c.getCause())
+            if (c.getMessage() != null && c.getMessage().contains(NO_SCRIPT_ERROR))
+                return true;
+
+        return false;
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.future.redis.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * read coalescer, collect concurrent single key reads within a window or up to max batch, and send them as one multi get
+ * <p>
+ * the collector thread only dispatches batches, multi gets are async and several batches can be in flight at once
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProReadCoalescer<V> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProReadCoalescer.class);
+
+    private static final long IDLE_POLL_MILLIS = 100L;
+
+    private final Function<List<String>, ? extends CompletionStage<List<V>>> multiGetter;
+
+    private final long windowNanos;
+
+    private final int maxBatch;
+
+    private final long timeoutNanos;
+
+    private final BlockingQueue<PendingRead<V>> queue;
+
+    private final Thread flusher;
+
+    private volatile boolean running;
+
+    public ProReadCoalescer(String name, Function<List<String>, ? extends CompletionStage<List<V>>> multiGetter, Duration window, Integer maxBatch, Duration timeout) {
+        if (isNull(name) || isNull(multiGetter))
+            throw new RuntimeException("name can't be null, multiGetter can't be null");
+        if (isNull(window) || window.isNegative() || window.isZero())
+            throw new RuntimeException("window can't be null or less than 1ns");
+        if (isNull(maxBatch) || maxBatch < 1)
+            throw new RuntimeException("maxBatch can't be null or less than 1");
+        if (isNull(timeout) || timeout.isNegative() || timeout.isZero())
+            throw new RuntimeException("timeout can't be null or less than 1ns");
+
+        this.multiGetter = multiGetter;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = maxBatch;
+        this.timeoutNanos = timeout.toNanos() + windowNanos;
+        this.queue = new LinkedBlockingQueue<>();
+        this.running = true;
+
+        this.flusher = new Thread(this::loop, name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * submit a read
+     *
+     * @param key
+     * @return
+     */
+    public CompletableFuture<V> submit(String key) {
+        if (isNull(key))
+            throw new RuntimeException("key can't be null");
+        if (!running)
+            throw new RuntimeException("coalescer is closed");
+
+        PendingRead<V> pendingRead = new PendingRead<>(key);
+        queue.add(pendingRead);
+        return pendingRead.future;
+    }
+
+    /**
+     * read and wait
+     *
+     * @param key
+     * @return
+     */
+    public V get(String key) {
+        CompletableFuture<V> future = submit(key);
+        try {
+            return future.get(timeoutNanos, NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("coalesced read interrupted, key = " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("coalesced read timeout, key = " + key, e);
+        }
+    }
+
+    private void loop() {
+        List<PendingRead<V>> batch = new ArrayList<>(maxBatch);
+        PendingRead<V> pendingRead;
+        long deadline, remaining;
+
+        while (running || !queue.isEmpty()) {
+            try {
+                pendingRead = queue.poll(IDLE_POLL_MILLIS, MILLISECONDS);
+                if (pendingRead == null)
+                    continue;
+
+                batch.add(pendingRead);
+                deadline = System.nanoTime() + windowNanos;
+
+                while (batch.size() < maxBatch) {
+                    queue.drainTo(batch, maxBatch - batch.size());
+                    if (batch.size() >= maxBatch)
+                        break;
+
+                    remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L)
+                        break;
+
+                    pendingRead = queue.poll(remaining, NANOSECONDS);
+                    if (pendingRead == null)
+                        break;
+                    batch.add(pendingRead);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                LOGGER.warn("coalesced read loop interrupted");
+                if (!batch.isEmpty())
+                    flush(batch);
+            } catch (Throwable t) {
+                LOGGER.error("coalesced read loop error, t = {}", t.toString());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingRead<V>> batch) {
+        Map<String, List<PendingRead<V>>> readsByKey = new LinkedHashMap<>((int) (batch.size() / 0.75f) + 1);
+        for (PendingRead<V> read : batch)
+            readsByKey.computeIfAbsent(read.key, k -> new ArrayList<>(1)).add(read);
+
+        List<String> keys = new ArrayList<>(readsByKey.keySet());
+        CompletionStage<List<V>> stage;
+        try {
+            stage = multiGetter.apply(keys);
+            if (isNull(stage))
+                throw new RuntimeException("multi get stage can't be null");
+        } catch (Throwable t) {
+            completeExceptionally(readsByKey, t);
+            return;
+        }
+
+        stage.whenComplete((values, t) -> {
+            if (t == null && (isNull(values) || values.size() != keys.size()))
+                t = new RuntimeException("multi get results size mismatch, keys size = " + keys.size());
+            if (t != null) {
+                completeExceptionally(readsByKey, t);
+                return;
+            }
+
+            for (int i = 0; i < keys.size(); i++) {
+                V value = values.get(i);
+                for (PendingRead<V> read : readsByKey.get(keys.get(i)))
+                    read.future.complete(value);
+            }
+        });
+    }
+
+    private static <V> void completeExceptionally(Map<String, List<PendingRead<V>>> readsByKey, Throwable t) {
+        for (List<PendingRead<V>> reads : readsByKey.values())
+            for (PendingRead<V> read : reads)
+                read.future.completeExceptionally(t);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            flusher.join(IDLE_POLL_MILLIS + MILLISECONDS.convert(timeoutNanos, NANOSECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        PendingRead<V> pendingRead;
+        while ((pendingRead = queue.poll()) != null)
+            pendingRead.future.completeExceptionally(new RuntimeException("coalescer is closed"));
+    }
+
+    private static final class PendingRead<V> {
+
+        private final String key;
+
+        private final CompletableFuture<V> future;
+
+        private PendingRead(String key) {
+            this.key = key;
+            this.future = new CompletableFuture<>();
+        }
+    }
+
+}
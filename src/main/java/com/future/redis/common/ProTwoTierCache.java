@@ -0,0 +1,253 @@
+package com.future.redis.common;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static com.future.base.util.base.ProChecker.isNull;
+
+/**
+ * two tier cache, bounded local cache in front of a redis cache
+ * <p>
+ * local reads are lock free, when the local size exceeds the max size one thread drops expired entries,
+ * then the least recently read entries down to 90% of the max size, so eviction is approximately lru and batched
+ * <p>
+ * local entries expire after the local ttl, puts and evicts are published to drop the local entries of other nodes
+ * <p>
+ * local keys are the string form of cache keys, values are held by reference
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProTwoTierCache implements Cache {
+
+    private final Cache redisCache;
+
+    private final ConcurrentMap<String, LocalEntry> localCache;
+
+    private final int localMaxSize;
+
+    private final AtomicBoolean evicting;
+
+    private final long localTtlMillis;
+
+    /**
+     * (cache name, key) -> publish invalidation, key is null when clear
+     */
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    /**
+     * bumped on every invalidation, a loaded value is only cached locally if no invalidation arrived during the load
+     */
+    private final AtomicLong invalidations;
+
+    public ProTwoTierCache(Cache redisCache, int localMaxSize, long localTtlMillis, BiConsumer<String, String> invalidationPublisher) {
+        if (isNull(redisCache) || isNull(invalidationPublisher))
+            throw new RuntimeException("redisCache can't be null, invalidationPublisher can't be null");
+        if (localMaxSize < 1 || localTtlMillis < 1L)
+            throw new RuntimeException("localMaxSize can't be less than 1, localTtlMillis can't be less than 1");
+
+        this.redisCache = redisCache;
+        this.localCache = new ConcurrentHashMap<>();
+        this.localMaxSize = localMaxSize;
+        this.evicting = new AtomicBoolean(false);
+        this.localTtlMillis = localTtlMillis;
+        this.invalidationPublisher = invalidationPublisher;
+        this.invalidations = new AtomicLong(0L);
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = getLocal(localKey);
+        if (wrapper != null)
+            return wrapper;
+
+        long stamp = invalidations.get();
+        wrapper = redisCache.get(key);
+        if (wrapper != null)
+            putLocal(localKey, wrapper.get(), stamp);
+
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+
+        if (value != null && type != null && !type.isInstance(value))
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = getLocal(localKey);
+        if (wrapper != null)
+            return (T) wrapper.get();
+
+        long stamp = invalidations.get();
+        T value = redisCache.get(key, valueLoader);
+        putLocal(localKey, value, stamp);
+
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        redisCache.put(key, value);
+        invalidateLocal(localKey);
+        invalidationPublisher.accept(getName(), localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        redisCache.evict(key);
+        invalidateLocal(localKey);
+        invalidationPublisher.accept(getName(), localKey);
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        invalidateLocalAll();
+        invalidationPublisher.accept(getName(), null);
+    }
+
+    /**
+     * drop a local entry
+     *
+     * @param localKey
+     */
+    public void invalidateLocal(String localKey) {
+        invalidations.incrementAndGet();
+        localCache.remove(localKey);
+    }
+
+    /**
+     * drop all local entries
+     */
+    public void invalidateLocalAll() {
+        invalidations.incrementAndGet();
+        localCache.clear();
+    }
+
+    /**
+     * local key of a cache key
+     *
+     * @param key
+     * @return
+     */
+    public static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private ValueWrapper getLocal(String localKey) {
+        LocalEntry entry = localCache.get(localKey);
+        if (entry == null)
+            return null;
+
+        long now = System.currentTimeMillis();
+        if (entry.expireAt <= now) {
+            localCache.remove(localKey, entry);
+            return null;
+        }
+
+        // skip the write when unchanged, hot entries are read by many threads
+        if (entry.readAt != now)
+            entry.readAt = now;
+
+        return entry.wrapper;
+    }
+
+    private void putLocal(String localKey, Object value, long stamp) {
+        if (stamp != invalidations.get())
+            return;
+
+        long now = System.currentTimeMillis();
+        localCache.put(localKey, new LocalEntry(new SimpleValueWrapper(value), now + localTtlMillis, now));
+        if (localCache.size() > localMaxSize)
+            evict(now);
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true))
+            return;
+
+        try {
+            localCache.entrySet().removeIf(e -> e.getValue().expireAt <= now);
+
+            int excess = localCache.size() - (localMaxSize - localMaxSize / 10);
+            if (excess <= 0)
+                return;
+
+            // read stamps are copied first, they keep changing while sorting
+            List<String> keys = new ArrayList<>(localCache.size());
+            List<LocalEntry> values = new ArrayList<>(localCache.size());
+            for (Map.Entry<String, LocalEntry> e : localCache.entrySet()) {
+                keys.add(e.getKey());
+                values.add(e.getValue());
+            }
+            int size = keys.size();
+            if (size == 0)
+                return;
+
+            long[] readAts = new long[size];
+            for (int i = 0; i < size; i++)
+                readAts[i] = values.get(i).readAt;
+            long[] sorted = readAts.clone();
+            Arrays.sort(sorted);
+            long threshold = sorted[Math.min(excess, size) - 1];
+
+            int removed = 0;
+            for (int i = 0; i < size && removed < excess; i++)
+                if (readAts[i] <= threshold && localCache.remove(keys.get(i), values.get(i)))
+                    removed++;
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class LocalEntry {
+
+        private final ValueWrapper wrapper;
+
+        private final long expireAt;
+
+        private volatile long readAt;
+
+        private LocalEntry(ValueWrapper wrapper, long expireAt, long readAt) {
+            this.wrapper = wrapper;
+            this.expireAt = expireAt;
+            this.readAt = readAt;
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.future.redis.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * two tier cache manager, wrap caches of a redis cache manager with local caches invalidated over pub/sub
+ * <p>
+ * message -> nodeId \n cacheName [\n key], no key means clear
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class ProTwoTierCacheManager implements CacheManager, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProTwoTierCacheManager.class);
+
+    private static final String SEPARATOR = "\n";
+
+    private final CacheManager redisCacheManager;
+
+    private final int localMaxSize;
+
+    private final long localTtlMillis;
+
+    private final String channel;
+
+    private final String nodeId;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final ConcurrentMap<String, ProTwoTierCache> caches;
+
+    public ProTwoTierCacheManager(CacheManager redisCacheManager, RedisConnectionFactory redisConnectionFactory, String channel, int localMaxSize, long localTtlMillis) {
+        if (isNull(redisCacheManager) || isNull(redisConnectionFactory) || isNull(channel))
+            throw new RuntimeException("redisCacheManager can't be null, redisConnectionFactory can't be null, channel can't be null");
+
+        this.redisCacheManager = redisCacheManager;
+        this.localMaxSize = localMaxSize;
+        this.localTtlMillis = localTtlMillis;
+        this.channel = channel;
+        this.nodeId = UUID.randomUUID().toString();
+        this.caches = new ConcurrentHashMap<>();
+
+        this.stringRedisTemplate = new StringRedisTemplate(redisConnectionFactory);
+
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(redisConnectionFactory);
+        this.listenerContainer.addMessageListener(this::onMessage, new ChannelTopic(channel));
+        this.listenerContainer.afterPropertiesSet();
+        this.listenerContainer.start();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        ProTwoTierCache cache = caches.get(name);
+        if (cache != null)
+            return cache;
+
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null)
+            return null;
+
+        return caches.computeIfAbsent(name, n -> new ProTwoTierCache(redisCache, localMaxSize, localTtlMillis, this::publish));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    private void publish(String cacheName, String localKey) {
+        String message = nodeId + SEPARATOR + cacheName + (localKey != null ? SEPARATOR + localKey : "");
+        try {
+            stringRedisTemplate.convertAndSend(channel, message);
+        } catch (Exception e) {
+            LOGGER.error("publish cache invalidation failed, cacheName = {}, key = {}, e = {}", cacheName, localKey, e.toString());
+        }
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), UTF_8).split(SEPARATOR, 3);
+        if (parts.length < 2 || nodeId.equals(parts[0]))
+            return;
+
+        ProTwoTierCache cache = caches.get(parts[1]);
+        if (cache == null)
+            return;
+
+        if (parts.length == 3)
+            cache.invalidateLocal(parts[2]);
+        else
+            cache.invalidateLocalAll();
+    }
+
+    @Override
+    public void close() {
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            LOGGER.error("invalidation listener container destroy failed, e = {}", e.toString());
+        }
+        for (ProTwoTierCache cache : caches.values())
+            cache.invalidateLocalAll();
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.future.redis.component;
+
+import com.future.base.model.exps.ProException;
+import com.future.redis.common.ProNativeConnection;
+import io.lettuce.core.ScriptOutputType;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.concurrent.CompletionStage;
+
+import static com.future.base.constant.common.ResponseElement.BAD_REQUEST;
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProKeyNamespace.encode;
+import static com.future.redis.component.ProFixedTokenBucketRateLimiter.CURRENT_SEC_STAMP_SUP;
+import static com.future.redis.component.ProFixedTokenBucketRateLimiter.KEY_NAMESPACE;
+import static com.future.redis.component.ProFixedTokenBucketRateLimiter.STAMP_SUFFIX;
+import static com.future.redis.component.ProFixedTokenBucketRateLimiter.TOKEN_SUFFIX;
+import static com.future.redis.constant.RedisScripts.TOKEN_BUCKET_RATE_LIMITER;
+import static java.lang.String.valueOf;
+
+/**
+ * non-blocking token bucket rate limiter, same script and keys as ProFixedTokenBucketRateLimiter,
+ * so both limiters of the same rate share buckets
+ * <p>
+ * stages complete on the lettuce i/o thread, dependent actions must not block
+ * <p>
+ * keys -> TB_RLI_{limitKey}_TKS, TB_RLI_{limitKey}_TST
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "AliControlFlowStatementWithoutBraces", "unused"})
+public final class ProAsyncTokenBucketRateLimiter {
+
+    private ProNativeConnection nativeConnection;
+
+    private byte[] replenishRate, burstCapacity;
+
+    public ProAsyncTokenBucketRateLimiter(ProNativeConnection nativeConnection, Integer replenishRate, Integer burstCapacity) {
+        assertParam(nativeConnection, replenishRate, burstCapacity);
+
+        this.nativeConnection = nativeConnection;
+        this.replenishRate = encode(valueOf(replenishRate));
+        this.burstCapacity = encode(valueOf(burstCapacity));
+    }
+
+    private static final RedisScript<Boolean> SCRIPT = generateScriptByScriptStr(TOKEN_BUCKET_RATE_LIMITER.str, Boolean.class);
+
+    /**
+     * key allowed?
+     *
+     * @param limitKey
+     * @return
+     */
+    public CompletionStage<Boolean> isAllowed(String limitKey) {
+        byte[][] keys = {KEY_NAMESPACE.rawTaggedKey(limitKey, TOKEN_SUFFIX), KEY_NAMESPACE.rawTaggedKey(limitKey, STAMP_SUFFIX)};
+
+        return nativeConnection.<Boolean>evalsha(SCRIPT, ScriptOutputType.BOOLEAN, keys, replenishRate, burstCapacity, CURRENT_SEC_STAMP_SUP.get())
+                .thenApply(Boolean.TRUE::equals);
+    }
+
+    /**
+     * delete key
+     *
+     * @param key
+     * @return
+     */
+    public CompletionStage<Boolean> delete(String key) {
+        if (isBlank(key))
+            throw new ProException(BAD_REQUEST);
+
+        return nativeConnection.async().del(KEY_NAMESPACE.rawTaggedKey(key, TOKEN_SUFFIX), KEY_NAMESPACE.rawTaggedKey(key, STAMP_SUFFIX))
+                .thenApply(c -> c != null && c > 0L);
+    }
+
+    /**
+     * assert params
+     *
+     * @param nativeConnection
+     * @param replenishRate
+     * @param burstCapacity
+     */
+    private void assertParam(ProNativeConnection nativeConnection, Integer replenishRate, Integer burstCapacity) {
+        if (isNull(nativeConnection))
+            throw new RuntimeException("nativeConnection can't be null");
+
+        if (isNull(replenishRate) || isNull(burstCapacity) || replenishRate < 1 || burstCapacity < replenishRate)
+            throw new RuntimeException("replenishRate and burstCapacity can't be null or less than 1, burstCapacity can't be less than replenishRate");
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.future.redis.component;
+
+import com.future.base.model.exps.ProException;
+import com.future.redis.common.ProKeyNamespace;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.future.base.constant.common.ResponseElement.BAD_REQUEST;
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProKeyNamespace.encode;
+import static com.future.redis.common.ProRawScriptExecutor.execute;
+import static com.future.redis.constant.RedisScripts.COMPOSITE_TOKEN_BUCKET_RATE_LIMITER;
+import static java.lang.String.valueOf;
+import static java.util.Optional.ofNullable;
+
+/**
+ * composite rate limiter, check N token buckets of one limit key in one script call, like per second, per minute and per day quotas
+ * <p>
+ * every bucket refills capacity tokens per period, permits are taken from all buckets or none, timestamps come from server TIME
+ * <p>
+ * keys -> CTB_RLI_{limitKey}_capacity_periodMillis per limit, all keys of a limit key are in one slot,
+ * limiters sharing a limit with the same capacity and period share its bucket
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "AliControlFlowStatementWithoutBraces", "unused"})
+public final class ProCompositeRateLimiter {
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private List<Limit> limits;
+
+    private byte[][] suffixes;
+
+    private byte[][] limitArgs;
+
+    public ProCompositeRateLimiter(StringRedisTemplate stringRedisTemplate, List<Limit> limits) {
+        assertParam(stringRedisTemplate, limits);
+
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.limits = Collections.unmodifiableList(new ArrayList<>(limits));
+
+        int size = limits.size();
+        this.suffixes = new byte[size][];
+        this.limitArgs = new byte[size * 2][];
+        Limit limit;
+        for (int i = 0; i < size; i++) {
+            limit = limits.get(i);
+            suffixes[i] = encode("_" + limit.capacity + "_" + limit.periodMillis);
+            limitArgs[i * 2] = encode(valueOf(limit.capacity));
+            limitArgs[i * 2 + 1] = encode(valueOf(limit.periodMillis));
+        }
+    }
+
+    private static final RedisScript<Long> SCRIPT = generateScriptByScriptStr(COMPOSITE_TOKEN_BUCKET_RATE_LIMITER.str, Long.class);
+
+    private static final ProKeyNamespace KEY_NAMESPACE = new ProKeyNamespace("CTB_RLI_");
+
+    private static final byte[] SINGLE_PERMIT = encode("1");
+
+    /**
+     * key allowed by all limits?
+     *
+     * @param limitKey
+     * @return
+     */
+    public boolean isAllowed(String limitKey) {
+        return acquire(limitKey, SINGLE_PERMIT) == null;
+    }
+
+    /**
+     * take permits from all limits or none
+     *
+     * @param limitKey
+     * @param permits
+     * @return null if acquired, else the first limit without enough tokens
+     */
+    public Limit tryAcquire(String limitKey, int permits) {
+        if (permits < 1)
+            throw new RuntimeException("permits can't be less than 1");
+
+        return acquire(limitKey, encode(valueOf(permits)));
+    }
+
+    /**
+     * delete the buckets of a limit key
+     *
+     * @param limitKey
+     * @return
+     */
+    public boolean delete(String limitKey) {
+        if (isBlank(limitKey))
+            throw new ProException(BAD_REQUEST);
+
+        byte[][] rawKeys = new byte[suffixes.length][];
+        for (int i = 0; i < suffixes.length; i++)
+            rawKeys[i] = KEY_NAMESPACE.rawTaggedKey(limitKey, suffixes[i]);
+
+        return ofNullable(stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(rawKeys)))
+                .map(c -> c > 0L).orElse(false);
+    }
+
+    /**
+     * limits in order
+     *
+     * @return
+     */
+    public List<Limit> getLimits() {
+        return limits;
+    }
+
+    private Limit acquire(String limitKey, byte[] rawPermits) {
+        int size = suffixes.length;
+        byte[][] keysAndArgs = new byte[size + 1 + limitArgs.length][];
+        for (int i = 0; i < size; i++)
+            keysAndArgs[i] = KEY_NAMESPACE.rawTaggedKey(limitKey, suffixes[i]);
+        keysAndArgs[size] = rawPermits;
+        System.arraycopy(limitArgs, 0, keysAndArgs, size + 1, limitArgs.length);
+
+        Long rejected = execute(stringRedisTemplate, SCRIPT, size, keysAndArgs);
+        if (isNull(rejected))
+            return limits.get(0);
+
+        return rejected == 0L ? null : limits.get(rejected.intValue() - 1);
+    }
+
+    /**
+     * assert params
+     *
+     * @param stringRedisTemplate
+     * @param limits
+     */
+    private void assertParam(StringRedisTemplate stringRedisTemplate, List<Limit> limits) {
+        if (isNull(stringRedisTemplate))
+            throw new RuntimeException("stringRedisTemplate can't be null");
+
+        if (isNull(limits) || limits.isEmpty())
+            throw new RuntimeException("limits can't be null or empty");
+
+        Set<String> definitions = new HashSet<>((int) (limits.size() / 0.75f) + 1);
+        for (Limit limit : limits) {
+            if (isNull(limit))
+                throw new RuntimeException("limit can't be null");
+            if (!definitions.add(limit.capacity + "_" + limit.periodMillis))
+                throw new RuntimeException("limits can't contain duplicate capacity and periodMillis");
+        }
+    }
+
+    /**
+     * bucket definition, refill capacity tokens per period
+     */
+    public static final class Limit {
+
+        private final int capacity;
+
+        private final long periodMillis;
+
+        public Limit(Integer capacity, Long periodMillis) {
+            if (isNull(capacity) || isNull(periodMillis) || capacity < 1 || periodMillis < 1L)
+                throw new RuntimeException("capacity and periodMillis can't be null or less than 1");
+
+            this.capacity = capacity;
+            this.periodMillis = periodMillis;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public long getPeriodMillis() {
+            return periodMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Limit{" +
+                    "capacity=" + capacity +
+                    ", periodMillis=" + periodMillis +
+                    '}';
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.future.redis.component;
+
+import com.future.redis.common.ProCircuitBreaker;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.lang.System.nanoTime;
+
+/**
+ * token bucket rate limiter with a circuit breaker, falls back to in-process token buckets while redis is failing or slow
+ * <p>
+ * local buckets are sized to the share of one node, replenishRate / nodeCount and burstCapacity / nodeCount,
+ * the breaker probes redis again after openMillis and closes on the first fast successful call
+ * <p>
+ * keys -> same as ProFixedTokenBucketRateLimiter
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "AliControlFlowStatementWithoutBraces", "unused"})
+public final class ProFallbackTokenBucketRateLimiter {
+
+    private static final int LOCAL_BUCKETS_MAX_SIZE = 65536;
+
+    private static final double NANOS_PER_SECOND = 1000000000.0D;
+
+    private ProFixedTokenBucketRateLimiter redisRateLimiter;
+
+    private ProCircuitBreaker circuitBreaker;
+
+    private double localRate, localCapacity;
+
+    private Map<String, LocalBucket> localBuckets;
+
+    public ProFallbackTokenBucketRateLimiter(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity, Integer nodeCount,
+                                             Integer failureThreshold, Long slowCallMillis, Long openMillis) {
+        if (isNull(nodeCount) || nodeCount < 1)
+            throw new RuntimeException("nodeCount can't be null or less than 1");
+
+        this.redisRateLimiter = new ProFixedTokenBucketRateLimiter(stringRedisTemplate, replenishRate, burstCapacity);
+        this.circuitBreaker = new ProCircuitBreaker("TB_RLI_" + replenishRate + "_" + burstCapacity, failureThreshold, slowCallMillis, openMillis);
+
+        this.localRate = (double) replenishRate / nodeCount;
+        this.localCapacity = Math.max((double) burstCapacity / nodeCount, 1.0D);
+        this.localBuckets = Collections.synchronizedMap(new LinkedHashMap<String, LocalBucket>(16, 0.75f, true) {
+            private static final long serialVersionUID = 6203158249104737562L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalBucket> eldest) {
+                return size() > LOCAL_BUCKETS_MAX_SIZE;
+            }
+        });
+    }
+
+    /**
+     * key allowed? decided by redis while the breaker is closed, by the local bucket of the key otherwise
+     *
+     * @param limitKey
+     * @return
+     */
+    public boolean isAllowed(String limitKey) {
+        if (!circuitBreaker.tryCall())
+            return localAllowed(limitKey);
+
+        long start = nanoTime();
+        boolean allowed;
+        try {
+            allowed = redisRateLimiter.isAllowed(limitKey);
+        } catch (RuntimeException e) {
+            circuitBreaker.onCallComplete(elapsedMillis(start), true);
+            return localAllowed(limitKey);
+        }
+        circuitBreaker.onCallComplete(elapsedMillis(start), false);
+
+        return allowed;
+    }
+
+    /**
+     * delete the bucket of a key and its local fallback bucket
+     *
+     * @param key
+     * @return
+     */
+    public boolean delete(String key) {
+        // drop the local bucket first, it is reset even if redis is failing
+        localBuckets.remove(key);
+        return redisRateLimiter.delete(key);
+    }
+
+    /**
+     * circuit breaker state
+     *
+     * @return
+     */
+    public ProCircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    private boolean localAllowed(String limitKey) {
+        if (isNull(limitKey))
+            throw new RuntimeException("limitKey can't be null");
+
+        return localBuckets.computeIfAbsent(limitKey, k -> new LocalBucket(localCapacity)).tryTake(localRate, localCapacity);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (nanoTime() - startNanos) / 1000000L;
+    }
+
+    /**
+     * in-process token bucket, starts full
+     */
+    private static final class LocalBucket {
+
+        private double tokens;
+
+        private long refreshedAt;
+
+        private LocalBucket(double capacity) {
+            this.tokens = capacity;
+            this.refreshedAt = nanoTime();
+        }
+
+        private synchronized boolean tryTake(double rate, double capacity) {
+            long now = nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refreshedAt) / NANOS_PER_SECOND * rate);
+            refreshedAt = now;
+
+            if (tokens < 1.0D)
+                return false;
+
+            tokens -= 1.0D;
+            return true;
+        }
+    }
+
+}
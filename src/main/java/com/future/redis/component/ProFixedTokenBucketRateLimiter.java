@@ -1,10 +1,16 @@
 package com.future.redis.component;
 
 import com.future.base.model.exps.ProException;
+import com.future.redis.common.ProKeyNamespace;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -12,14 +18,20 @@ import static com.future.base.constant.common.ResponseElement.BAD_REQUEST;
 import static com.future.base.util.base.ProChecker.isBlank;
 import static com.future.base.util.base.ProChecker.isNull;
 import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProKeyNamespace.encode;
+import static com.future.redis.common.ProRawScriptExecutor.execute;
+import static com.future.redis.common.ProRawScriptExecutor.executePipelined;
+import static com.future.redis.constant.RedisScripts.TOKEN_BUCKET_ACQUIRE_RATE_LIMITER;
 import static com.future.redis.constant.RedisScripts.TOKEN_BUCKET_RATE_LIMITER;
 import static java.lang.String.valueOf;
+import static java.lang.System.currentTimeMillis;
 import static java.time.Instant.now;
-import static java.util.Arrays.asList;
 import static java.util.Optional.ofNullable;
 
 /**
  * token bucket rate limiter
+ * <p>
+ * keys -> TB_RLI_{limitKey}_TKS, TB_RLI_{limitKey}_TST, both keys of a limit key are in one slot
  *
  * @author liuyunfei
  */
@@ -28,34 +40,65 @@ public final class ProFixedTokenBucketRateLimiter {
 
     private StringRedisTemplate stringRedisTemplate;
 
-    private String replenishRate, burstCapacity;
+    private byte[] replenishRate, burstCapacity;
 
     public ProFixedTokenBucketRateLimiter(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity) {
         assertParam(stringRedisTemplate, replenishRate, burstCapacity);
 
         this.stringRedisTemplate = stringRedisTemplate;
-        this.replenishRate = valueOf(replenishRate);
-        this.burstCapacity = valueOf(burstCapacity);
+        this.replenishRate = encode(valueOf(replenishRate));
+        this.burstCapacity = encode(valueOf(burstCapacity));
     }
 
-    private static final Supplier<String> CURRENT_SEC_STAMP_SUP = () -> now().getEpochSecond() + "";
+    static final Supplier<byte[]> CURRENT_SEC_STAMP_SUP = () -> encode(valueOf(now().getEpochSecond()));
 
     private static final RedisScript<Boolean> SCRIPT = generateScriptByScriptStr(TOKEN_BUCKET_RATE_LIMITER.str, Boolean.class);
 
-    private static final String KEY_PREFIX = "TB_RLI_";
-    private static final String TOKEN_SUFFIX = "_TKS", STAMP_SUFFIX = "_TST";
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = generateScriptByScriptStr(TOKEN_BUCKET_ACQUIRE_RATE_LIMITER.str, Long.class);
 
-    private static final Function<String, List<String>> SCRIPT_KEYS_WRAPPER = id -> {
-        String prefix = KEY_PREFIX + id;
-        return asList(prefix + TOKEN_SUFFIX, prefix + STAMP_SUFFIX);
-    };
+    static final ProKeyNamespace KEY_NAMESPACE = new ProKeyNamespace("TB_RLI_");
+    static final byte[] TOKEN_SUFFIX = encode("_TKS"), STAMP_SUFFIX = encode("_TST");
+
+    private static final int SCRIPT_KEYS_COUNT = 2;
 
-    private final Supplier<List<String>> SCRIPT_ARGS_SUP = () ->
-            asList(replenishRate, burstCapacity, CURRENT_SEC_STAMP_SUP.get());
+    private final Function<String, byte[][]> SCRIPT_KEYS_AND_ARGS_WRAPPER = limitKey ->
+            new byte[][]{KEY_NAMESPACE.rawTaggedKey(limitKey, TOKEN_SUFFIX), KEY_NAMESPACE.rawTaggedKey(limitKey, STAMP_SUFFIX),
+                    replenishRate, burstCapacity, CURRENT_SEC_STAMP_SUP.get()};
 
     private final Function<String, Boolean> ALLOWED_GETTER = limitKey ->
-            stringRedisTemplate.execute(SCRIPT, SCRIPT_KEYS_WRAPPER.apply(limitKey),
-                    SCRIPT_ARGS_SUP.get());
+            execute(stringRedisTemplate, SCRIPT, SCRIPT_KEYS_COUNT, SCRIPT_KEYS_AND_ARGS_WRAPPER.apply(limitKey));
+
+    private final Function<List<String>, List<Boolean>> ALLOWEDS_GETTER = limitKeys -> {
+        List<byte[][]> keysAndArgsList = new ArrayList<>(limitKeys.size());
+        for (String limitKey : limitKeys)
+            keysAndArgsList.add(SCRIPT_KEYS_AND_ARGS_WRAPPER.apply(limitKey));
+
+        return executePipelined(stringRedisTemplate, SCRIPT, SCRIPT_KEYS_COUNT, keysAndArgsList);
+    };
+
+    /**
+     * take permits, return the decision and the millis to wait until enough tokens exist,
+     * buckets are refilled by whole seconds, so the wait ends at the start of a refill second
+     *
+     * @param limitKey
+     * @param permits
+     * @return
+     */
+    public Acquisition tryAcquire(String limitKey, int permits) {
+        if (permits < 1)
+            throw new ProException(BAD_REQUEST);
+
+        Long waitMillis = execute(stringRedisTemplate, ACQUIRE_SCRIPT, SCRIPT_KEYS_COUNT,
+                KEY_NAMESPACE.rawTaggedKey(limitKey, TOKEN_SUFFIX), KEY_NAMESPACE.rawTaggedKey(limitKey, STAMP_SUFFIX),
+                replenishRate, burstCapacity, encode(valueOf(currentTimeMillis())), encode(valueOf(permits)));
+
+        if (isNull(waitMillis) || waitMillis < 0L)
+            return Acquisition.NEVER;
+        if (waitMillis == 0L)
+            return Acquisition.ACQUIRED;
+
+        return new Acquisition(false, Math.max(waitMillis, 1L));
+    }
 
     /**
      * key allowed?
@@ -68,7 +111,45 @@ public final class ProFixedTokenBucketRateLimiter {
     }
 
     /**
-     * delete key
+     * all keys allowed? every distinct key is checked once in one pipeline, a duplicate key takes one token only,
+     * a token is taken from each allowed key even if another key is not allowed
+     *
+     * @param limitKeys
+     * @return
+     */
+    public boolean isAllowedAll(List<String> limitKeys) {
+        if (isNull(limitKeys) || limitKeys.isEmpty())
+            throw new ProException(BAD_REQUEST);
+
+        for (Boolean allowed : ALLOWEDS_GETTER.apply(new ArrayList<>(new LinkedHashSet<>(limitKeys))))
+            if (!Boolean.TRUE.equals(allowed))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * keys allowed? every distinct key is checked once in one pipeline, a duplicate key takes one token only
+     *
+     * @param limitKeys
+     * @return limitKey -> allowed, in order of first occurrence in limitKeys
+     */
+    public Map<String, Boolean> isAllowedEach(List<String> limitKeys) {
+        if (isNull(limitKeys) || limitKeys.isEmpty())
+            throw new ProException(BAD_REQUEST);
+
+        List<String> distinctKeys = new ArrayList<>(new LinkedHashSet<>(limitKeys));
+        List<Boolean> alloweds = ALLOWEDS_GETTER.apply(distinctKeys);
+
+        Map<String, Boolean> results = new LinkedHashMap<>((int) (distinctKeys.size() / 0.75f) + 1);
+        for (int i = 0; i < distinctKeys.size(); i++)
+            results.put(distinctKeys.get(i), Boolean.TRUE.equals(alloweds.get(i)));
+
+        return results;
+    }
+
+    /**
+     * delete the bucket of a key
      *
      * @param key
      * @return
@@ -77,7 +158,9 @@ public final class ProFixedTokenBucketRateLimiter {
         if (isBlank(key))
             throw new ProException(BAD_REQUEST);
 
-        return ofNullable(stringRedisTemplate.delete(key)).orElse(false);
+        byte[][] rawKeys = {KEY_NAMESPACE.rawTaggedKey(key, TOKEN_SUFFIX), KEY_NAMESPACE.rawTaggedKey(key, STAMP_SUFFIX)};
+        return ofNullable(stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(rawKeys)))
+                .map(c -> c > 0L).orElse(false);
     }
 
     /**
@@ -95,4 +178,37 @@ public final class ProFixedTokenBucketRateLimiter {
             throw new RuntimeException("replenishRate and burstCapacity can't be null or less than 1, burstCapacity can't be less than replenishRate");
     }
 
+    /**
+     * acquisition, waitMillis is 0 if acquired, -1 if permits can never be acquired
+     */
+    public static final class Acquisition {
+
+        private static final Acquisition ACQUIRED = new Acquisition(true, 0L), NEVER = new Acquisition(false, -1L);
+
+        private final boolean acquired;
+
+        private final long waitMillis;
+
+        private Acquisition(boolean acquired, long waitMillis) {
+            this.acquired = acquired;
+            this.waitMillis = waitMillis;
+        }
+
+        public boolean isAcquired() {
+            return acquired;
+        }
+
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "Acquisition{" +
+                    "acquired=" + acquired +
+                    ", waitMillis=" + waitMillis +
+                    '}';
+        }
+    }
+
 }
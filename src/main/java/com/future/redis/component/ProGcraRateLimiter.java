@@ -0,0 +1,102 @@
+package com.future.redis.component;
+
+import com.future.base.model.exps.ProException;
+import com.future.redis.common.ProKeyNamespace;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.function.Function;
+
+import static com.future.base.constant.common.ResponseElement.BAD_REQUEST;
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProKeyNamespace.encode;
+import static com.future.redis.common.ProRawScriptExecutor.execute;
+import static com.future.redis.constant.RedisScripts.GCRA_RATE_LIMITER;
+import static java.lang.String.valueOf;
+import static java.util.Optional.ofNullable;
+
+/**
+ * gcra rate limiter, one key and one write per call, timestamps come from server TIME in micros
+ * <p>
+ * allow burstCapacity requests at once, then replenishRate requests per second
+ * <p>
+ * key -> GCRA_RLI_{limitKey}
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "AliControlFlowStatementWithoutBraces", "unused"})
+public final class ProGcraRateLimiter {
+
+    private static final long MICROS_PER_SECOND = 1000000L;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private byte[] emissionInterval, tolerance;
+
+    public ProGcraRateLimiter(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity) {
+        assertParam(stringRedisTemplate, replenishRate, burstCapacity);
+
+        this.stringRedisTemplate = stringRedisTemplate;
+
+        long emissionIntervalMicros = Math.max(Math.round((double) MICROS_PER_SECOND / replenishRate), 1L);
+        this.emissionInterval = encode(valueOf(emissionIntervalMicros));
+        this.tolerance = encode(valueOf(emissionIntervalMicros * burstCapacity));
+    }
+
+    private static final RedisScript<Long> SCRIPT = generateScriptByScriptStr(GCRA_RATE_LIMITER.str, Long.class);
+
+    private static final ProKeyNamespace KEY_NAMESPACE = new ProKeyNamespace("GCRA_RLI_");
+    private static final byte[] EMPTY_SUFFIX = new byte[0];
+
+    private static final byte[] SINGLE_PERMIT = encode("1");
+
+    private static final int SCRIPT_KEYS_COUNT = 1;
+
+    private final Function<String, Long> WAIT_MILLIS_GETTER = limitKey ->
+            execute(stringRedisTemplate, SCRIPT, SCRIPT_KEYS_COUNT,
+                    KEY_NAMESPACE.rawTaggedKey(limitKey, EMPTY_SUFFIX), emissionInterval, tolerance, SINGLE_PERMIT);
+
+    /**
+     * key allowed?
+     *
+     * @param limitKey
+     * @return
+     */
+    public boolean isAllowed(String limitKey) {
+        return ofNullable(WAIT_MILLIS_GETTER.apply(limitKey)).map(w -> w == 0L).orElse(false);
+    }
+
+    /**
+     * delete key
+     *
+     * @param key
+     * @return
+     */
+    public boolean delete(String key) {
+        if (isBlank(key))
+            throw new ProException(BAD_REQUEST);
+
+        byte[] rawKey = KEY_NAMESPACE.rawTaggedKey(key, EMPTY_SUFFIX);
+        return ofNullable(stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(rawKey)))
+                .map(c -> c > 0L).orElse(false);
+    }
+
+    /**
+     * assert params
+     *
+     * @param stringRedisTemplate
+     * @param replenishRate
+     * @param burstCapacity
+     */
+    private void assertParam(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity) {
+        if (isNull(stringRedisTemplate))
+            throw new RuntimeException("stringRedisTemplate can't be null");
+
+        if (isNull(replenishRate) || isNull(burstCapacity) || replenishRate < 1 || burstCapacity < 1)
+            throw new RuntimeException("replenishRate and burstCapacity can't be null or less than 1");
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.future.redis.component;
+
+import com.future.base.model.exps.ProException;
+import com.future.redis.common.ProKeyNamespace;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.function.Function;
+
+import static com.future.base.constant.common.ResponseElement.BAD_REQUEST;
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProKeyNamespace.encode;
+import static com.future.redis.common.ProRawScriptExecutor.execute;
+import static com.future.redis.constant.RedisScripts.LEAKY_BUCKET_METER_RATE_LIMITER;
+import static java.lang.String.valueOf;
+import static java.util.Optional.ofNullable;
+
+/**
+ * leaky bucket rate limiter, the bucket as a meter, level and last leak time are two fields of one hash,
+ * timestamps come from server TIME
+ * <p>
+ * the bucket leaks leakRate requests per second, requests are rejected while the bucket is full at capacity
+ * <p>
+ * key -> LB_RLI_{limitKey}
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "AliControlFlowStatementWithoutBraces", "unused"})
+public final class ProLeakyBucketRateLimiter {
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private byte[] leakRate, capacity;
+
+    public ProLeakyBucketRateLimiter(StringRedisTemplate stringRedisTemplate, Integer leakRate, Integer capacity) {
+        assertParam(stringRedisTemplate, leakRate, capacity);
+
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.leakRate = encode(valueOf(leakRate));
+        this.capacity = encode(valueOf(capacity));
+    }
+
+    private static final RedisScript<Boolean> SCRIPT = generateScriptByScriptStr(LEAKY_BUCKET_METER_RATE_LIMITER.str, Boolean.class);
+
+    private static final ProKeyNamespace KEY_NAMESPACE = new ProKeyNamespace("LB_RLI_");
+    private static final byte[] EMPTY_SUFFIX = new byte[0];
+
+    private static final int SCRIPT_KEYS_COUNT = 1;
+
+    private final Function<String, Boolean> ALLOWED_GETTER = limitKey ->
+            execute(stringRedisTemplate, SCRIPT, SCRIPT_KEYS_COUNT,
+                    KEY_NAMESPACE.rawTaggedKey(limitKey, EMPTY_SUFFIX), leakRate, capacity);
+
+    /**
+     * key allowed?
+     *
+     * @param limitKey
+     * @return
+     */
+    public boolean isAllowed(String limitKey) {
+        return ofNullable(ALLOWED_GETTER.apply(limitKey)).orElse(false);
+    }
+
+    /**
+     * delete key
+     *
+     * @param key
+     * @return
+     */
+    public boolean delete(String key) {
+        if (isBlank(key))
+            throw new ProException(BAD_REQUEST);
+
+        byte[] rawKey = KEY_NAMESPACE.rawTaggedKey(key, EMPTY_SUFFIX);
+        return ofNullable(stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(rawKey)))
+                .map(c -> c > 0L).orElse(false);
+    }
+
+    /**
+     * assert params
+     *
+     * @param stringRedisTemplate
+     * @param leakRate
+     * @param capacity
+     */
+    private void assertParam(StringRedisTemplate stringRedisTemplate, Integer leakRate, Integer capacity) {
+        if (isNull(stringRedisTemplate))
+            throw new RuntimeException("stringRedisTemplate can't be null");
+
+        if (isNull(leakRate) || isNull(capacity) || leakRate < 1 || capacity < 1)
+            throw new RuntimeException("leakRate and capacity can't be null or less than 1");
+    }
+
+}
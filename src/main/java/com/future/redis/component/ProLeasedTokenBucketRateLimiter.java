@@ -0,0 +1,235 @@
+package com.future.redis.component;
+
+import com.future.base.model.exps.ProException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.future.base.constant.common.ResponseElement.BAD_REQUEST;
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProKeyNamespace.encode;
+import static com.future.redis.common.ProRawScriptExecutor.execute;
+import static com.future.redis.component.ProFixedTokenBucketRateLimiter.*;
+import static com.future.redis.constant.RedisScripts.TOKEN_BUCKET_LEASE_RATE_LIMITER;
+import static java.lang.String.valueOf;
+import static java.util.Optional.ofNullable;
+
+/**
+ * token bucket rate limiter with local token leases, shares buckets with ProFixedTokenBucketRateLimiter
+ * <p>
+ * a node leases a chunk of tokens of a limit key from redis atomically, and serves isAllowed from a local counter
+ * until the lease runs out or expires, leased tokens not used before expiration are dropped
+ * <p>
+ * lease size adapts to local demand, doubled when a lease runs out before expiration, shrunk to the used count when it expires,
+ * and never exceeds maxLeaseSize, so at most maxLeaseSize tokens per node and key are held away from other nodes
+ * <p>
+ * lease holders are looked up lock free, once more than HOLDERS_MAX_SIZE keys are held,
+ * adding a key prunes the holders without a live lease at most once per leaseMillis, keys with live leases are never pruned
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "AliControlFlowStatementWithoutBraces", "unused"})
+public final class ProLeasedTokenBucketRateLimiter {
+
+    private static final int HOLDERS_MAX_SIZE = 65536;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private byte[] replenishRate, burstCapacity;
+
+    private long leaseMillis;
+
+    private int maxLeaseSize;
+
+    private final ConcurrentMap<String, LeaseHolder> holders = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean pruning = new AtomicBoolean(false);
+
+    private volatile long nextPruneAt;
+
+    public ProLeasedTokenBucketRateLimiter(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity, Long leaseMillis, Integer maxLeaseSize) {
+        assertParam(stringRedisTemplate, replenishRate, burstCapacity, leaseMillis, maxLeaseSize);
+
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.replenishRate = encode(valueOf(replenishRate));
+        this.burstCapacity = encode(valueOf(burstCapacity));
+        this.leaseMillis = leaseMillis;
+        this.maxLeaseSize = maxLeaseSize;
+    }
+
+    private static final RedisScript<Long> SCRIPT = generateScriptByScriptStr(TOKEN_BUCKET_LEASE_RATE_LIMITER.str, Long.class);
+
+    private static final int SCRIPT_KEYS_COUNT = 2;
+
+    /**
+     * key allowed?
+     *
+     * @param limitKey
+     * @return
+     */
+    public boolean isAllowed(String limitKey) {
+        if (isNull(limitKey))
+            throw new RuntimeException("limitKey can't be null");
+
+        LeaseHolder holder = holders.get(limitKey);
+        if (holder == null) {
+            holder = holders.computeIfAbsent(limitKey, k -> new LeaseHolder());
+            if (holders.size() > HOLDERS_MAX_SIZE)
+                pruneExpired();
+        }
+
+        Lease lease = holder.lease;
+        if (lease != null && lease.tryAcquire(System.currentTimeMillis()))
+            return true;
+
+        synchronized (holder) {
+            long now = System.currentTimeMillis();
+            lease = holder.lease;
+            if (lease != null && lease.tryAcquire(now))
+                return true;
+
+            int size = nextLeaseSize(holder, lease, now);
+            long granted = ofNullable(execute(stringRedisTemplate, SCRIPT, SCRIPT_KEYS_COUNT,
+                    KEY_NAMESPACE.rawTaggedKey(limitKey, TOKEN_SUFFIX), KEY_NAMESPACE.rawTaggedKey(limitKey, STAMP_SUFFIX),
+                    replenishRate, burstCapacity, CURRENT_SEC_STAMP_SUP.get(), encode(valueOf(size)))).orElse(0L);
+
+            holder.leaseSize = size;
+            if (granted < 1L) {
+                holder.lease = null;
+                return false;
+            }
+
+            // one of the granted tokens is taken by this call
+            holder.lease = new Lease(granted - 1L, now + leaseMillis);
+            return true;
+        }
+    }
+
+    /**
+     * tokens left in the local lease of the key
+     *
+     * @param limitKey
+     * @return
+     */
+    public long localRemaining(String limitKey) {
+        LeaseHolder holder = holders.get(limitKey);
+        Lease lease = holder != null ? holder.lease : null;
+        return lease != null && lease.expireAt > System.currentTimeMillis() ? Math.max(lease.remaining.get(), 0L) : 0L;
+    }
+
+    /**
+     * delete the bucket of a key and drop its local lease
+     *
+     * @param key
+     * @return
+     */
+    public boolean delete(String key) {
+        if (isBlank(key))
+            throw new ProException(BAD_REQUEST);
+
+        holders.remove(key);
+        byte[][] rawKeys = {KEY_NAMESPACE.rawTaggedKey(key, TOKEN_SUFFIX), KEY_NAMESPACE.rawTaggedKey(key, STAMP_SUFFIX)};
+        return ofNullable(stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(rawKeys)))
+                .map(c -> c > 0L).orElse(false);
+    }
+
+    private void pruneExpired() {
+        long now = System.currentTimeMillis();
+        if (now < nextPruneAt || !pruning.compareAndSet(false, true))
+            return;
+
+        try {
+            holders.values().removeIf(h -> h.expired(now));
+            // at most one full scan per lease period while live leases keep the map over the limit
+            nextPruneAt = now + leaseMillis;
+        } finally {
+            pruning.set(false);
+        }
+    }
+
+    private int nextLeaseSize(LeaseHolder holder, Lease lease, long now) {
+        if (lease == null)
+            return holder.leaseSize;
+
+        long used = lease.granted - Math.max(lease.remaining.get(), 0L) + 1L;
+        long size = lease.expireAt > now ?
+                // ran out before expiration, demand is higher than the lease
+                (long) holder.leaseSize << 1
+                :
+                used;
+
+        return (int) Math.min(Math.max(size, 1L), maxLeaseSize);
+    }
+
+    /**
+     * assert params
+     *
+     * @param stringRedisTemplate
+     * @param replenishRate
+     * @param burstCapacity
+     * @param leaseMillis
+     * @param maxLeaseSize
+     */
+    private void assertParam(StringRedisTemplate stringRedisTemplate, Integer replenishRate, Integer burstCapacity, Long leaseMillis, Integer maxLeaseSize) {
+        if (isNull(stringRedisTemplate))
+            throw new RuntimeException("stringRedisTemplate can't be null");
+
+        if (isNull(replenishRate) || isNull(burstCapacity) || replenishRate < 1 || burstCapacity < replenishRate)
+            throw new RuntimeException("replenishRate and burstCapacity can't be null or less than 1, burstCapacity can't be less than replenishRate");
+
+        if (isNull(leaseMillis) || leaseMillis < 1L)
+            throw new RuntimeException("leaseMillis can't be null or less than 1");
+
+        if (isNull(maxLeaseSize) || maxLeaseSize < 1 || maxLeaseSize > burstCapacity)
+            throw new RuntimeException("maxLeaseSize can't be null or less than 1 or greater than burstCapacity");
+    }
+
+    private static final class LeaseHolder {
+
+        private volatile Lease lease;
+
+        private int leaseSize = 1;
+
+        private boolean expired(long now) {
+            Lease l = lease;
+            return l == null || l.expireAt <= now;
+        }
+    }
+
+    private static final class Lease {
+
+        private final long granted;
+
+        private final AtomicLong remaining;
+
+        private final long expireAt;
+
+        private Lease(long remaining, long expireAt) {
+            this.granted = remaining;
+            this.remaining = new AtomicLong(remaining);
+            this.expireAt = expireAt;
+        }
+
+        private boolean tryAcquire(long now) {
+            if (now >= expireAt)
+                return false;
+
+            long r;
+            do {
+                r = remaining.get();
+                if (r <= 0L)
+                    return false;
+            } while (!remaining.compareAndSet(r, r - 1L));
+
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.future.redis.component;
+
+import com.future.base.model.exps.ProException;
+import com.future.redis.common.ProKeyNamespace;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.function.Function;
+
+import static com.future.base.constant.common.ResponseElement.BAD_REQUEST;
+import static com.future.base.util.base.ProChecker.isBlank;
+import static com.future.base.util.base.ProChecker.isNull;
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProKeyNamespace.encode;
+import static com.future.redis.common.ProRawScriptExecutor.execute;
+import static com.future.redis.constant.RedisScripts.SLIDING_WINDOW_RATE_LIMITER;
+import static java.lang.String.valueOf;
+import static java.util.Optional.ofNullable;
+
+/**
+ * approximate sliding window rate limiter, counters of the current and the previous window are two fields of one hash,
+ * the previous count is weighted by its overlap with the sliding window, timestamps come from server TIME
+ * <p>
+ * allow about limit requests in any window of windowMillis, without the boundary bursts of a fixed window
+ * <p>
+ * key -> SW_RLI_{limitKey}
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "AliControlFlowStatementWithoutBraces", "unused"})
+public final class ProSlidingWindowRateLimiter {
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private byte[] limit, window;
+
+    public ProSlidingWindowRateLimiter(StringRedisTemplate stringRedisTemplate, Integer limit, Long windowMillis) {
+        assertParam(stringRedisTemplate, limit, windowMillis);
+
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.limit = encode(valueOf(limit));
+        this.window = encode(valueOf(windowMillis));
+    }
+
+    private static final RedisScript<Boolean> SCRIPT = generateScriptByScriptStr(SLIDING_WINDOW_RATE_LIMITER.str, Boolean.class);
+
+    private static final ProKeyNamespace KEY_NAMESPACE = new ProKeyNamespace("SW_RLI_");
+    private static final byte[] EMPTY_SUFFIX = new byte[0];
+
+    private static final int SCRIPT_KEYS_COUNT = 1;
+
+    private final Function<String, Boolean> ALLOWED_GETTER = limitKey ->
+            execute(stringRedisTemplate, SCRIPT, SCRIPT_KEYS_COUNT,
+                    KEY_NAMESPACE.rawTaggedKey(limitKey, EMPTY_SUFFIX), limit, window);
+
+    /**
+     * key allowed?
+     *
+     * @param limitKey
+     * @return
+     */
+    public boolean isAllowed(String limitKey) {
+        return ofNullable(ALLOWED_GETTER.apply(limitKey)).orElse(false);
+    }
+
+    /**
+     * delete key
+     *
+     * @param key
+     * @return
+     */
+    public boolean delete(String key) {
+        if (isBlank(key))
+            throw new ProException(BAD_REQUEST);
+
+        byte[] rawKey = KEY_NAMESPACE.rawTaggedKey(key, EMPTY_SUFFIX);
+        return ofNullable(stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.keyCommands().del(rawKey)))
+                .map(c -> c > 0L).orElse(false);
+    }
+
+    /**
+     * assert params
+     *
+     * @param stringRedisTemplate
+     * @param limit
+     * @param windowMillis
+     */
+    private void assertParam(StringRedisTemplate stringRedisTemplate, Integer limit, Long windowMillis) {
+        if (isNull(stringRedisTemplate))
+            throw new RuntimeException("stringRedisTemplate can't be null");
+
+        if (isNull(limit) || isNull(windowMillis) || limit < 1 || windowMillis < 1L)
+            throw new RuntimeException("limit and windowMillis can't be null or less than 1");
+    }
+
+}
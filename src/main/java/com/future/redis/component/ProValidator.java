@@ -1,22 +1,20 @@
 package com.future.redis.component;
 
 import com.future.base.model.exps.ProException;
+import com.future.redis.common.ProKeyNamespace;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
 
 import java.time.Duration;
-import java.util.Collections;
-import java.util.List;
-import java.util.function.Function;
-import java.util.function.UnaryOperator;
 
 import static com.future.base.constant.common.ResponseElement.EMPTY_PARAM;
 import static com.future.base.util.base.ProChecker.isBlank;
 import static com.future.base.util.base.ProChecker.isNull;
 import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProKeyNamespace.encode;
+import static com.future.redis.common.ProRawScriptExecutor.execute;
 import static com.future.redis.constant.RedisScripts.REPEATABLE_UNTIL_SUCCESS_OR_TIMEOUT_VALIDATION;
 import static com.future.redis.constant.RedisScripts.UNREPEATABLE_VALIDATION;
-import static java.util.Collections.singletonList;
 import static java.util.Optional.ofNullable;
 
 /**
@@ -36,14 +34,9 @@ public final class ProValidator {
         this.stringRedisTemplate = stringRedisTemplate;
     }
 
-    private static final String KEY_PREFIX = "VK_";
+    private static final ProKeyNamespace KEY_NAMESPACE = new ProKeyNamespace("VK_");
 
-    private static final UnaryOperator<String> KEY_WRAPPER = key -> KEY_PREFIX + key;
-
-    private static final Function<String, List<String>> SCRIPT_KEYS_WRAPPER = key ->
-            singletonList(KEY_WRAPPER.apply(key));
-
-    private final Function<String, List<String>> SCRIPT_ARGS_WRAPPER = Collections::singletonList;
+    private static final int SCRIPT_KEYS_COUNT = 1;
 
     private static final RedisScript<Boolean> UNREPEATABLE_VALIDATION_SCRIPT = generateScriptByScriptStr(UNREPEATABLE_VALIDATION.str, Boolean.class);
 
@@ -62,7 +55,7 @@ public final class ProValidator {
         if (isNull(expire))
             throw new RuntimeException("expire can't be null");
 
-        stringRedisTemplate.opsForValue().set(KEY_WRAPPER.apply(key), value, expire);
+        stringRedisTemplate.opsForValue().set(KEY_NAMESPACE.key(key), value, expire);
     }
 
     /**
@@ -75,8 +68,8 @@ public final class ProValidator {
     public boolean unRepeatableValidate(String key, String value) {
         assertParam(key, value);
 
-        return ofNullable(stringRedisTemplate.execute(UNREPEATABLE_VALIDATION_SCRIPT,
-                SCRIPT_KEYS_WRAPPER.apply(key), SCRIPT_ARGS_WRAPPER.apply(value))).orElse(false);
+        return ofNullable(execute(stringRedisTemplate, UNREPEATABLE_VALIDATION_SCRIPT, SCRIPT_KEYS_COUNT,
+                KEY_NAMESPACE.rawKey(key), encode(value))).orElse(false);
     }
 
     /**
@@ -89,8 +82,8 @@ public final class ProValidator {
     public boolean repeatableValidateUntilSuccessOrTimeout(String key, String value) {
         assertParam(key, value);
 
-        return ofNullable(stringRedisTemplate.execute(REPEATABLE_UNTIL_SUCCESS_OR_TIMEOUT_VALIDATION_SCRIPT,
-                SCRIPT_KEYS_WRAPPER.apply(key), SCRIPT_ARGS_WRAPPER.apply(value))).orElse(false);
+        return ofNullable(execute(stringRedisTemplate, REPEATABLE_UNTIL_SUCCESS_OR_TIMEOUT_VALIDATION_SCRIPT, SCRIPT_KEYS_COUNT,
+                KEY_NAMESPACE.rawKey(key), encode(value))).orElse(false);
     }
 
     /**
@@ -103,7 +96,7 @@ public final class ProValidator {
     public boolean repeatableValidateUntilTimeout(String key, String value) {
         assertParam(key, value);
 
-        return ofNullable(stringRedisTemplate.opsForValue().get(KEY_WRAPPER.apply(key)))
+        return ofNullable(stringRedisTemplate.opsForValue().get(KEY_NAMESPACE.key(key)))
                 .map(value::equals).orElse(false);
     }
 
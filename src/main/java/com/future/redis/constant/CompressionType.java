@@ -0,0 +1,32 @@
+package com.future.redis.constant;
+
+/**
+ * value compression type
+ *
+ * @author liuyunfei
+ */
+public enum CompressionType {
+
+    /**
+     * no compression, default
+     */
+    NONE((byte) 0),
+    /**
+     * deflate
+     */
+    DEFLATE((byte) 1),
+    /**
+     * gzip
+     */
+    GZIP((byte) 2);
+
+    /**
+     * id written in the header of compressed values
+     */
+    public final byte id;
+
+    CompressionType(byte id) {
+        this.id = id;
+    }
+
+}
@@ -37,9 +37,104 @@ public enum RedisScripts {
             "redis.call(\"setex\", timestamp_key, ttl, now)\n" +
             "return allowed"),
 
+    /**
+     * token bucket lease script, same keys and args as token bucket limiter script, ARGV[4] is requested tokens,
+     * return granted tokens
+     */
+    TOKEN_BUCKET_LEASE_RATE_LIMITER("redis.replicate_commands()\n" +
+            "local tokens_key = KEYS[1]\n" +
+            "local timestamp_key = KEYS[2]\n" +
+            "local rate = tonumber(ARGV[1])\n" +
+            "local capacity = tonumber(ARGV[2])\n" +
+            "local now = tonumber(ARGV[3])\n" +
+            "local requested = tonumber(ARGV[4])\n" +
+            "local fill_time = capacity/rate\n" +
+            "local ttl = math.floor(fill_time*2)\n" +
+            "local last_tokens = tonumber(redis.call(\"get\", tokens_key))\n" +
+            "if last_tokens == nil then\n" +
+            "  last_tokens = capacity\n" +
+            "end\n" +
+            "local last_refreshed = tonumber(redis.call(\"get\", timestamp_key))\n" +
+            "if last_refreshed == nil then\n" +
+            "  last_refreshed = 0\n" +
+            "end\n" +
+            "local delta = math.max(0, now-last_refreshed)\n" +
+            "local tokens = math.min(capacity, last_tokens+(delta*rate))\n" +
+            "local granted = math.max(0, math.min(requested, math.floor(tokens)))\n" +
+            "tokens = tokens - granted\n" +
+            "redis.call(\"setex\", tokens_key, ttl, tokens)\n" +
+            "redis.call(\"setex\", timestamp_key, ttl, now)\n" +
+            "return granted"),
+
+    /**
+     * token bucket acquire script, same keys and args as token bucket limiter script except ARGV[3] is current millis, ARGV[4] is permits,
+     * the bucket is still stamped and refilled by whole seconds,
+     * return 0 if acquired, -1 if permits exceed capacity, else millis until the refill second with enough tokens starts
+     */
+    TOKEN_BUCKET_ACQUIRE_RATE_LIMITER("redis.replicate_commands()\n" +
+            "local tokens_key = KEYS[1]\n" +
+            "local timestamp_key = KEYS[2]\n" +
+            "local rate = tonumber(ARGV[1])\n" +
+            "local capacity = tonumber(ARGV[2])\n" +
+            "local now_millis = tonumber(ARGV[3])\n" +
+            "local now = math.floor(now_millis / 1000)\n" +
+            "local permits = tonumber(ARGV[4])\n" +
+            "if permits > capacity then\n" +
+            "  return -1\n" +
+            "end\n" +
+            "local fill_time = capacity/rate\n" +
+            "local ttl = math.floor(fill_time*2)\n" +
+            "local last_tokens = tonumber(redis.call(\"get\", tokens_key))\n" +
+            "if last_tokens == nil then\n" +
+            "  last_tokens = capacity\n" +
+            "end\n" +
+            "local last_refreshed = tonumber(redis.call(\"get\", timestamp_key))\n" +
+            "if last_refreshed == nil then\n" +
+            "  last_refreshed = 0\n" +
+            "end\n" +
+            "local delta = math.max(0, now-last_refreshed)\n" +
+            "local tokens = math.min(capacity, last_tokens+(delta*rate))\n" +
+            "local wait = 0\n" +
+            "if tokens >= permits then\n" +
+            "  tokens = tokens - permits\n" +
+            "else\n" +
+            "  wait = (now + math.ceil((permits - tokens) / rate)) * 1000 - now_millis\n" +
+            "end\n" +
+            "redis.call(\"setex\", tokens_key, ttl, tokens)\n" +
+            "redis.call(\"setex\", timestamp_key, ttl, now)\n" +
+            "return wait"),
+
+    /**
+     * composite token bucket limiter script, one hash of tokens and last refresh time(millis) per bucket, timestamps from server TIME,
+     * ARGV[1] is permits, ARGV[2i] and ARGV[2i+1] are capacity and period(millis) of KEYS[i],
+     * permits are taken from all buckets or none, return 0 if allowed, else index of the first bucket without enough tokens
+     */
+    COMPOSITE_TOKEN_BUCKET_RATE_LIMITER("redis.replicate_commands()\n" +
+            "local permits = tonumber(ARGV[1])\n" +
+            "local t = redis.call(\"time\")\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local tokens = {}\n" +
+            "for i = 1, #KEYS do\n" +
+            "  local capacity = tonumber(ARGV[i * 2])\n" +
+            "  local period = tonumber(ARGV[i * 2 + 1])\n" +
+            "  local state = redis.call(\"hmget\", KEYS[i], \"k\", \"t\")\n" +
+            "  local last_tokens = tonumber(state[1]) or capacity\n" +
+            "  local last_refreshed = tonumber(state[2]) or now\n" +
+            "  local current = math.min(capacity, last_tokens + math.max(0, now - last_refreshed) * capacity / period)\n" +
+            "  if current < permits then\n" +
+            "    return i\n" +
+            "  end\n" +
+            "  tokens[i] = current\n" +
+            "end\n" +
+            "for i = 1, #KEYS do\n" +
+            "  redis.call(\"hset\", KEYS[i], \"k\", tokens[i] - permits, \"t\", now)\n" +
+            "  redis.call(\"pexpire\", KEYS[i], tonumber(ARGV[i * 2 + 1]))\n" +
+            "end\n" +
+            "return 0"),
+
 
     /**
-     * leaky bucket limiter script
+     * leaky bucket limiter script, counts as a fixed window, ARGV[1] is limit, ARGV[2] is window(millis)
      */
     LEAKY_BUCKET_RATE_LIMITER("redis.replicate_commands()\n" +
             "local tokens_key = KEYS[1]\n" +
@@ -49,6 +144,76 @@ public enum RedisScripts {
             "end\n" +
             "return tonumber(ARGV[1]) >= allowed_tokens"),
 
+    /**
+     * leaky bucket limiter script, bucket as a meter, level and last leak time(millis) in one hash, timestamps from server TIME,
+     * ARGV[1] is leak rate per second, ARGV[2] is capacity
+     */
+    LEAKY_BUCKET_METER_RATE_LIMITER("redis.replicate_commands()\n" +
+            "local key = KEYS[1]\n" +
+            "local rate = tonumber(ARGV[1])\n" +
+            "local capacity = tonumber(ARGV[2])\n" +
+            "local t = redis.call(\"time\")\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local state = redis.call(\"hmget\", key, \"l\", \"t\")\n" +
+            "local level = tonumber(state[1]) or 0\n" +
+            "local last = tonumber(state[2]) or now\n" +
+            "level = math.max(0, level - math.max(0, now - last) * rate / 1000)\n" +
+            "local allowed = level + 1 <= capacity\n" +
+            "if allowed then\n" +
+            "  level = level + 1\n" +
+            "end\n" +
+            "redis.call(\"hset\", key, \"l\", level, \"t\", now)\n" +
+            "redis.call(\"pexpire\", key, math.ceil(level * 1000 / rate) + 1000)\n" +
+            "return allowed"),
+
+    /**
+     * approximate sliding window limiter script, counters of the current and the previous window in one hash,
+     * the previous counter is weighted by its overlap with the sliding window, timestamps from server TIME,
+     * ARGV[1] is limit, ARGV[2] is window(millis)
+     */
+    SLIDING_WINDOW_RATE_LIMITER("redis.replicate_commands()\n" +
+            "local key = KEYS[1]\n" +
+            "local limit = tonumber(ARGV[1])\n" +
+            "local window = tonumber(ARGV[2])\n" +
+            "local t = redis.call(\"time\")\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local cur = math.floor(now / window)\n" +
+            "local counts = redis.call(\"hmget\", key, tostring(cur - 1), tostring(cur))\n" +
+            "local prev = tonumber(counts[1]) or 0\n" +
+            "local curr = tonumber(counts[2]) or 0\n" +
+            "local weight = 1 - (now - cur * window) / window\n" +
+            "if prev * weight + curr + 1 > limit then\n" +
+            "  return false\n" +
+            "end\n" +
+            "redis.call(\"hincrby\", key, tostring(cur), 1)\n" +
+            "redis.call(\"hdel\", key, tostring(cur - 2))\n" +
+            "redis.call(\"pexpire\", key, window * 2)\n" +
+            "return true"),
+
+    /**
+     * gcra limiter script, one theoretical arrival time(micros) per key, timestamps from server TIME,
+     * ARGV[1] is emission interval(micros), ARGV[2] is tolerance(micros), ARGV[3] is permits,
+     * return 0 if allowed, or millis to wait
+     */
+    GCRA_RATE_LIMITER("redis.replicate_commands()\n" +
+            "local key = KEYS[1]\n" +
+            "local interval = tonumber(ARGV[1])\n" +
+            "local tolerance = tonumber(ARGV[2])\n" +
+            "local permits = tonumber(ARGV[3])\n" +
+            "local t = redis.call(\"time\")\n" +
+            "local now = tonumber(t[1]) * 1000000 + tonumber(t[2])\n" +
+            "local tat = tonumber(redis.call(\"get\", key))\n" +
+            "if tat == nil or tat < now then\n" +
+            "  tat = now\n" +
+            "end\n" +
+            "local new_tat = tat + interval * permits\n" +
+            "local wait = new_tat - tolerance - now\n" +
+            "if wait > 0 then\n" +
+            "  return math.ceil(wait / 1000)\n" +
+            "end\n" +
+            "redis.call(\"set\", key, string.format(\"%d\", new_tat), \"px\", math.ceil((new_tat - now) / 1000))\n" +
+            "return 0"),
+
     /**
      * unrepeatable validator script
      */
@@ -90,7 +255,65 @@ public enum RedisScripts {
             "if b then\n" +
             "  redis.call(\"expire\", k, tonumber(ARGV[2]))\n" +
             "end\n" +
-            "return b");
+            "return b"),
+
+    /**
+     * hash put all and expire, ARGV[1] is ttl(seconds), ttl <= 0 means never expire, ARGV[2...] are field-value pairs
+     */
+    HASH_PUT_ALL_WITH_EXPIRE("redis.replicate_commands()\n" +
+            "local k = KEYS[1]\n" +
+            "local ttl = tonumber(ARGV[1])\n" +
+            "for i = 2, #ARGV, 1000 do\n" +
+            "  redis.call(\"hset\", k, unpack(ARGV, i, math.min(i + 999, #ARGV)))\n" +
+            "end\n" +
+            "if ttl > 0 then\n" +
+            "  redis.call(\"expire\", k, ttl)\n" +
+            "end\n" +
+            "return true"),
+
+    /**
+     * list right push all and expire, ARGV[1] is ttl(seconds), ttl <= 0 means never expire, ARGV[2...] are values, return list size
+     */
+    LIST_RIGHT_PUSH_ALL_WITH_EXPIRE("redis.replicate_commands()\n" +
+            "local k = KEYS[1]\n" +
+            "local ttl = tonumber(ARGV[1])\n" +
+            "local size = 0\n" +
+            "for i = 2, #ARGV, 1000 do\n" +
+            "  size = redis.call(\"rpush\", k, unpack(ARGV, i, math.min(i + 999, #ARGV)))\n" +
+            "end\n" +
+            "if ttl > 0 then\n" +
+            "  redis.call(\"expire\", k, ttl)\n" +
+            "end\n" +
+            "return size"),
+
+    /**
+     * set add all and expire, ARGV[1] is ttl(seconds), ttl <= 0 means never expire, ARGV[2...] are members, return added count
+     */
+    SET_ADD_ALL_WITH_EXPIRE("redis.replicate_commands()\n" +
+            "local k = KEYS[1]\n" +
+            "local ttl = tonumber(ARGV[1])\n" +
+            "local count = 0\n" +
+            "for i = 2, #ARGV, 1000 do\n" +
+            "  count = count + redis.call(\"sadd\", k, unpack(ARGV, i, math.min(i + 999, #ARGV)))\n" +
+            "end\n" +
+            "if ttl > 0 then\n" +
+            "  redis.call(\"expire\", k, ttl)\n" +
+            "end\n" +
+            "return count"),
+
+    /**
+     * multi set and expire, ARGV[1] is ttl(seconds), ttl <= 0 means never expire, ARGV[i + 1] is the value of KEYS[i]
+     */
+    MULTI_SET_WITH_EXPIRE("redis.replicate_commands()\n" +
+            "local ttl = tonumber(ARGV[1])\n" +
+            "for i = 1, #KEYS do\n" +
+            "  if ttl > 0 then\n" +
+            "    redis.call(\"setex\", KEYS[i], ttl, ARGV[i + 1])\n" +
+            "  else\n" +
+            "    redis.call(\"set\", KEYS[i], ARGV[i + 1])\n" +
+            "  end\n" +
+            "end\n" +
+            "return true");
 
     public final String str;
 
@@ -0,0 +1,19 @@
+package com.future.redis.constant;
+
+/**
+ * value serializer type
+ *
+ * @author liuyunfei
+ */
+public enum ValueSerializerType {
+
+    /**
+     * jdk serialization, default
+     */
+    JDK,
+    /**
+     * jackson json with type info
+     */
+    JSON
+
+}
@@ -1,12 +1,17 @@
 package com.future.redis.ioc;
 
+import com.future.redis.anno.EnableProCacheManager;
 import com.future.redis.api.conf.RedisConf;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportAware;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 
 import static com.future.redis.api.generator.ProRedisGenerator.generateCacheManager;
+import static com.future.redis.api.generator.ProRedisGenerator.generateTwoTierCacheManager;
 
 /**
  * cache manager configuration
@@ -14,11 +19,23 @@ import static com.future.redis.api.generator.ProRedisGenerator.generateCacheMana
  * @author liuyunfei
  */
 @ConditionalOnBean(value = {RedisConf.class})
-public class ProCacheManagerConfiguration {
+public class ProCacheManagerConfiguration implements ImportAware {
+
+    private int localMaxSize;
+
+    @Override
+    public void setImportMetadata(AnnotationMetadata importMetadata) {
+        AnnotationAttributes attributes = AnnotationAttributes.fromMap(importMetadata.getAnnotationAttributes(EnableProCacheManager.class.getName()));
+        if (attributes != null)
+            this.localMaxSize = attributes.getNumber("localMaxSize").intValue();
+    }
 
     @Bean
     CacheManager cacheManager(RedisConf redisConf, LettuceConnectionFactory lettuceConnectionFactory) {
-        return generateCacheManager(redisConf, lettuceConnectionFactory);
+        return localMaxSize > 0 ?
+                generateTwoTierCacheManager(redisConf, lettuceConnectionFactory, localMaxSize)
+                :
+                generateCacheManager(redisConf, lettuceConnectionFactory);
     }
 
 }
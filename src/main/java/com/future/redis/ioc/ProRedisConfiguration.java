@@ -1,16 +1,24 @@
 package com.future.redis.ioc;
 
 import com.future.redis.api.conf.RedisConf;
+import com.future.redis.common.ProNativeConnection;
 import com.future.redis.component.ProValidator;
+import com.future.redis.util.RedisAsyncUtil;
+import com.future.redis.util.RedisBytesUtil;
+import com.future.redis.util.RedisMultiKeyUtil;
+import com.future.redis.util.RedisReactiveUtil;
 import com.future.redis.util.RedisStringUtil;
 import com.future.redis.util.RedisUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.redis.connection.RedisConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
@@ -23,7 +31,7 @@ import static com.future.redis.api.generator.ProRedisGenerator.*;
  */
 @SuppressWarnings({"AlibabaRemoveCommentedCode"})
 @ConditionalOnBean(value = {RedisConf.class})
-@AutoConfiguration
+@AutoConfiguration(before = RedisReactiveAutoConfiguration.class)
 public class ProRedisConfiguration {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProRedisConfiguration.class);
@@ -51,13 +59,48 @@ public class ProRedisConfiguration {
     }
 
     @Bean
-    RedisUtil redisUtil(RedisTemplate<String, Object> redisTemplate) {
-        return new RedisUtil(redisTemplate);
+    ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(RedisConf redisConf, LettuceConnectionFactory lettuceConnectionFactory) {
+        return generateReactiveObjectRedisTemplate(redisConf, lettuceConnectionFactory);
     }
 
     @Bean
-    RedisStringUtil redisStringUtil(StringRedisTemplate stringRedisTemplate) {
-        return new RedisStringUtil(stringRedisTemplate);
+    ReactiveStringRedisTemplate reactiveStringRedisTemplate(LettuceConnectionFactory lettuceConnectionFactory) {
+        return generateReactiveStringRedisTemplate(lettuceConnectionFactory);
+    }
+
+    @Bean
+    ProNativeConnection proNativeConnection(LettuceConnectionFactory lettuceConnectionFactory) {
+        return generateNativeConnection(lettuceConnectionFactory);
+    }
+
+    @Bean
+    RedisUtil redisUtil(RedisTemplate<String, Object> redisTemplate, RedisConf redisConf, ProNativeConnection proNativeConnection) {
+        return new RedisUtil(redisTemplate, redisConf, proNativeConnection);
+    }
+
+    @Bean
+    RedisStringUtil redisStringUtil(StringRedisTemplate stringRedisTemplate, RedisConf redisConf, ProNativeConnection proNativeConnection) {
+        return new RedisStringUtil(stringRedisTemplate, redisConf, proNativeConnection);
+    }
+
+    @Bean
+    RedisAsyncUtil redisAsyncUtil(ProNativeConnection proNativeConnection, RedisTemplate<String, Object> redisTemplate) {
+        return new RedisAsyncUtil(proNativeConnection, redisTemplate);
+    }
+
+    @Bean
+    RedisMultiKeyUtil redisMultiKeyUtil(ProNativeConnection proNativeConnection, RedisTemplate<String, Object> redisTemplate) {
+        return new RedisMultiKeyUtil(proNativeConnection, redisTemplate);
+    }
+
+    @Bean
+    RedisBytesUtil redisBytesUtil(ProNativeConnection proNativeConnection) {
+        return new RedisBytesUtil(proNativeConnection);
+    }
+
+    @Bean
+    RedisReactiveUtil redisReactiveUtil(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
+        return new RedisReactiveUtil(reactiveRedisTemplate);
     }
 
     @Bean
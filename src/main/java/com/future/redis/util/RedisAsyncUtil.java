@@ -0,0 +1,369 @@
+package com.future.redis.util;
+
+import com.future.redis.common.ProNativeConnection;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * 基于lettuce原生异步连接的非阻塞操作,与RedisUtil使用相同的序列化,数据互通
+ * <p>
+ * 回调在lettuce的io线程上执行,不要在回调中执行阻塞操作
+ */
+@Component
+@AutoConfigureAfter({RedisTemplate.class})
+@SuppressWarnings({"unused", "AliControlFlowStatementWithoutBraces"})
+public class RedisAsyncUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisAsyncUtil.class);
+    private final ProNativeConnection nativeConnection;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private static RedisClusterAsyncCommands<byte[], byte[]> staticAsyncCommands;
+    private static RedisSerializer<Object> staticValueSerializer;
+    private static RedisSerializer<Object> staticHashKeySerializer;
+    private static RedisSerializer<Object> staticHashValueSerializer;
+
+
+    public RedisAsyncUtil(ProNativeConnection nativeConnection, RedisTemplate<String, Object> redisTemplate) {
+        this.nativeConnection = nativeConnection;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        staticAsyncCommands = this.nativeConnection.async();
+        staticValueSerializer = (RedisSerializer<Object>) this.redisTemplate.getValueSerializer();
+        staticHashKeySerializer = (RedisSerializer<Object>) this.redisTemplate.getHashKeySerializer();
+        staticHashValueSerializer = (RedisSerializer<Object>) this.redisTemplate.getHashValueSerializer();
+    }
+
+    // =============================common============================
+
+    /**
+     * 指定缓存失效时间
+     *
+     * @param key  键
+     * @param time 时间(秒)
+     */
+    public static CompletableFuture<Boolean> expire(String key, long time) {
+        if (time <= 0)
+            return completedFuture(true);
+
+        return staticAsyncCommands.expire(rawKey(key), time).toCompletableFuture()
+                .thenApply(Boolean.TRUE::equals);
+    }
+
+    /**
+     * 根据key 获取过期时间
+     *
+     * @param key 键 不能为null
+     * @return 时间(秒) 返回-1代表为永久有效
+     */
+    public static CompletableFuture<Long> getExpire(String key) {
+        return staticAsyncCommands.ttl(rawKey(key)).toCompletableFuture();
+    }
+
+    /**
+     * 判断key是否存在
+     *
+     * @param key 键
+     * @return true 存在 false不存在
+     */
+    public static CompletableFuture<Boolean> hasKey(String key) {
+        return staticAsyncCommands.exists(rawKey(key)).toCompletableFuture()
+                .thenApply(c -> ofNullable(c).orElse(0L) > 0);
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key 可以传一个值 或多个
+     * @return 删除的个数
+     */
+    public static CompletableFuture<Long> del(String... key) {
+        if (key == null || key.length == 0)
+            return completedFuture(0L);
+
+        return staticAsyncCommands.del(rawKeys(key)).toCompletableFuture();
+    }
+
+    // ============================String=============================
+
+    /**
+     * 普通缓存获取
+     *
+     * @param key 键
+     * @return 值
+     */
+    public static CompletableFuture<Object> get(String key) {
+        if (key == null)
+            return completedFuture(null);
+
+        return staticAsyncCommands.get(rawKey(key)).toCompletableFuture()
+                .thenApply(staticValueSerializer::deserialize);
+    }
+
+    /**
+     * 普通缓存获取
+     *
+     * @param key 键
+     * @return 值
+     */
+    public static CompletableFuture<String> getStr(String key) {
+        return get(key).thenApply(v -> ofNullable(v).map(Object::toString).orElse(null));
+    }
+
+    /**
+     * 批量普通缓存获取
+     *
+     * @param keys 键
+     * @return 值 与键顺序一致,不存在的为null
+     */
+    public static CompletableFuture<List<Object>> mget(List<String> keys) {
+        if (keys == null || keys.isEmpty())
+            return completedFuture(new ArrayList<>(0));
+
+        return staticAsyncCommands.mget(rawKeys(keys.toArray(new String[0]))).toCompletableFuture()
+                .thenApply(kvs -> {
+                    List<Object> values = new ArrayList<>(kvs.size());
+                    for (KeyValue<byte[], byte[]> kv : kvs)
+                        values.add(staticValueSerializer.deserialize(kv.getValueOrElse(null)));
+                    return values;
+                });
+    }
+
+    /**
+     * 普通缓存放入
+     *
+     * @param key   键
+     * @param value 值
+     * @return true成功 false失败
+     */
+    public static CompletableFuture<Boolean> set(String key, Object value) {
+        return staticAsyncCommands.set(rawKey(key), staticValueSerializer.serialize(value)).toCompletableFuture()
+                .thenApply(RedisAsyncUtil::isOk);
+    }
+
+    /**
+     * 普通缓存放入并设置时间
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false 失败
+     */
+    public static CompletableFuture<Boolean> set(String key, Object value, long time) {
+        if (time <= 0)
+            return set(key, value);
+
+        return staticAsyncCommands.setex(rawKey(key), time, staticValueSerializer.serialize(value)).toCompletableFuture()
+                .thenApply(RedisAsyncUtil::isOk);
+    }
+
+    /**
+     * 递增
+     *
+     * @param key   键
+     * @param delta 要增加几(大于0)
+     */
+    public static CompletableFuture<Long> incr(String key, long delta) {
+        if (delta < 0) {
+            throw new RuntimeException("递增因子必须大于0");
+        }
+        return staticAsyncCommands.incrby(rawKey(key), delta).toCompletableFuture();
+    }
+
+    /**
+     * 递减
+     *
+     * @param key   键
+     * @param delta 要减少几(小于0)
+     */
+    public static CompletableFuture<Long> decr(String key, long delta) {
+        if (delta < 0) {
+            throw new RuntimeException("递减因子必须大于0");
+        }
+        return staticAsyncCommands.decrby(rawKey(key), delta).toCompletableFuture();
+    }
+
+    // ================================Map=================================
+
+    /**
+     * HashGet
+     *
+     * @param key  键 不能为null
+     * @param item 项 不能为null
+     */
+    public static CompletableFuture<Object> hget(String key, String item) {
+        return staticAsyncCommands.hget(rawKey(key), staticHashKeySerializer.serialize(item)).toCompletableFuture()
+                .thenApply(staticHashValueSerializer::deserialize);
+    }
+
+    /**
+     * 获取hashKey对应的所有键值
+     *
+     * @param key 键
+     * @return 对应的多个键值
+     */
+    public static CompletableFuture<Map<Object, Object>> hmget(String key) {
+        return staticAsyncCommands.hgetall(rawKey(key)).toCompletableFuture()
+                .thenApply(raw -> {
+                    Map<Object, Object> entries = new LinkedHashMap<>((int) (raw.size() / 0.75f) + 1);
+                    for (Map.Entry<byte[], byte[]> entry : raw.entrySet())
+                        entries.put(staticHashKeySerializer.deserialize(entry.getKey()), staticHashValueSerializer.deserialize(entry.getValue()));
+                    return entries;
+                });
+    }
+
+    /**
+     * 向一张hash表中放入数据,如果不存在将创建
+     *
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @return true 成功 false失败
+     */
+    public static CompletableFuture<Boolean> hset(String key, String item, Object value) {
+        return staticAsyncCommands.hset(rawKey(key), staticHashKeySerializer.serialize(item), staticHashValueSerializer.serialize(value)).toCompletableFuture()
+                .thenApply(r -> true);
+    }
+
+    /**
+     * 删除hash表中的值
+     *
+     * @param key  键 不能为null
+     * @param item 项 可以使多个 不能为null
+     * @return 删除的个数
+     */
+    public static CompletableFuture<Long> hdel(String key, Object... item) {
+        byte[][] rawItems = new byte[item.length][];
+        for (int i = 0; i < item.length; i++)
+            rawItems[i] = staticHashKeySerializer.serialize(item[i]);
+
+        return staticAsyncCommands.hdel(rawKey(key), rawItems).toCompletableFuture();
+    }
+
+    // ============================set=============================
+
+    /**
+     * 根据key获取Set中的所有值
+     *
+     * @param key 键
+     */
+    public static CompletableFuture<Set<Object>> sGet(String key) {
+        return staticAsyncCommands.smembers(rawKey(key)).toCompletableFuture()
+                .thenApply(raw -> {
+                    Set<Object> members = new LinkedHashSet<>((int) (raw.size() / 0.75f) + 1);
+                    for (byte[] member : raw)
+                        members.add(staticValueSerializer.deserialize(member));
+                    return members;
+                });
+    }
+
+    /**
+     * 根据value从一个set中查询,是否存在
+     *
+     * @param key   键
+     * @param value 值
+     * @return true 存在 false不存在
+     */
+    public static CompletableFuture<Boolean> sHasKey(String key, Object value) {
+        return staticAsyncCommands.sismember(rawKey(key), staticValueSerializer.serialize(value)).toCompletableFuture()
+                .thenApply(Boolean.TRUE::equals);
+    }
+
+    /**
+     * 将数据放入set缓存
+     *
+     * @param key    键
+     * @param values 值 可以是多个
+     * @return 成功个数
+     */
+    public static CompletableFuture<Long> sSet(String key, Object... values) {
+        return staticAsyncCommands.sadd(rawKey(key), rawValues(values)).toCompletableFuture();
+    }
+
+    // ===============================list=================================
+
+    /**
+     * 获取list缓存的内容
+     *
+     * @param key   键
+     * @param start 开始
+     * @param end   结束 0 到 -1代表所有值
+     */
+    public static CompletableFuture<List<Object>> lGet(String key, long start, long end) {
+        return staticAsyncCommands.lrange(rawKey(key), start, end).toCompletableFuture()
+                .thenApply(raw -> {
+                    List<Object> values = new ArrayList<>(raw.size());
+                    for (byte[] value : raw)
+                        values.add(staticValueSerializer.deserialize(value));
+                    return values;
+                });
+    }
+
+    /**
+     * 将list放入缓存
+     *
+     * @param key    键
+     * @param values 值 可以是多个
+     * @return list长度
+     */
+    public static CompletableFuture<Long> lSet(String key, Object... values) {
+        return staticAsyncCommands.rpush(rawKey(key), rawValues(values)).toCompletableFuture();
+    }
+
+    // ===============================zSet=================================
+
+    /**
+     * zset 添加
+     *
+     * @param key   键
+     * @param value 值
+     * @param score 分数
+     * @return boolean
+     */
+    public static CompletableFuture<Boolean> zAdd(String key, Object value, double score) {
+        return staticAsyncCommands.zadd(rawKey(key), score, staticValueSerializer.serialize(value)).toCompletableFuture()
+                .thenApply(c -> ofNullable(c).orElse(0L) > 0);
+    }
+
+    // ===============================serializer=================================
+
+    private static boolean isOk(String reply) {
+        return "OK".equals(reply);
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(UTF_8);
+    }
+
+    private static byte[][] rawKeys(String... keys) {
+        byte[][] rawKeys = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++)
+            rawKeys[i] = rawKey(keys[i]);
+        return rawKeys;
+    }
+
+    private static byte[][] rawValues(Object... values) {
+        byte[][] rawValues = new byte[values.length][];
+        for (int i = 0; i < values.length; i++)
+            rawValues[i] = staticValueSerializer.serialize(values[i]);
+        return rawValues;
+    }
+}
@@ -0,0 +1,310 @@
+package com.future.redis.util;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.lang.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.future.base.util.base.ProChecker.isNull;
+import static java.util.Collections.emptyList;
+import static java.util.Optional.ofNullable;
+
+/**
+ * pipelined batch, queue operations and flush them in one round trip
+ * <p>
+ * string writes (expire, del, set, incr, decr) pass their keys to the invalidator right before the command is sent
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class RedisBatch<V> {
+
+    private static final Function<Object, Object> BOOLEAN_NORMALIZER = r -> Boolean.TRUE.equals(r);
+
+    private static final Function<Object, Object> LONG_NORMALIZER = r -> ofNullable(r).orElse(0L);
+
+    private static final Function<Object, Object> RAW_NORMALIZER = r -> r;
+
+    private static final Function<Object, Object> SUCCESS_NORMALIZER = r -> true;
+
+    /**
+     * status replies (hmset...) are not collected by the pipeline, occupy no raw result
+     */
+    private static final Function<Object, Object> STATUS_NORMALIZER = r -> true;
+
+    private final RedisTemplate<String, V> redisTemplate;
+
+    private final List<Consumer<RedisOperations<String, V>>> commands;
+
+    private final List<Function<Object, Object>> normalizers;
+
+    private final Consumer<String> invalidator;
+
+    RedisBatch(RedisTemplate<String, V> redisTemplate, Consumer<String> invalidator) {
+        if (isNull(redisTemplate) || isNull(invalidator))
+            throw new RuntimeException("redisTemplate can't be null, invalidator can't be null");
+
+        this.redisTemplate = redisTemplate;
+        this.invalidator = invalidator;
+        this.commands = new ArrayList<>();
+        this.normalizers = new ArrayList<>();
+    }
+
+    private RedisBatch<V> queue(Consumer<RedisOperations<String, V>> command, Function<Object, Object> normalizer) {
+        commands.add(command);
+        normalizers.add(normalizer);
+        return this;
+    }
+
+    private RedisBatch<V> queueWrite(String key, Consumer<RedisOperations<String, V>> command, Function<Object, Object> normalizer) {
+        return queue(ops -> {
+            invalidator.accept(key);
+            command.accept(ops);
+        }, normalizer);
+    }
+
+    /**
+     * expire, result -> Boolean
+     *
+     * @param key
+     * @param time seconds
+     * @return
+     */
+    public RedisBatch<V> expire(String key, long time) {
+        return queueWrite(key, ops -> ops.expire(key, time, TimeUnit.SECONDS), BOOLEAN_NORMALIZER);
+    }
+
+    /**
+     * delete keys, result -> Long
+     *
+     * @param keys
+     * @return
+     */
+    public RedisBatch<V> del(Collection<String> keys) {
+        return queue(ops -> {
+            keys.forEach(invalidator);
+            ops.delete(keys);
+        }, LONG_NORMALIZER);
+    }
+
+    /**
+     * get, result -> V
+     *
+     * @param key
+     * @return
+     */
+    public RedisBatch<V> get(String key) {
+        return queue(ops -> ops.opsForValue().get(key), RAW_NORMALIZER);
+    }
+
+    /**
+     * set, result -> Boolean
+     *
+     * @param key
+     * @param value
+     * @return
+     */
+    public RedisBatch<V> set(String key, V value) {
+        return queueWrite(key, ops -> ops.opsForValue().set(key, value), SUCCESS_NORMALIZER);
+    }
+
+    /**
+     * set with expire, time <= 0 means never expire, result -> Boolean
+     *
+     * @param key
+     * @param value
+     * @param time  seconds
+     * @return
+     */
+    public RedisBatch<V> set(String key, V value, long time) {
+        return time > 0 ?
+                queueWrite(key, ops -> ops.opsForValue().set(key, value, time, TimeUnit.SECONDS), SUCCESS_NORMALIZER)
+                :
+                set(key, value);
+    }
+
+    /**
+     * increment, result -> Long
+     *
+     * @param key
+     * @param delta
+     * @return
+     */
+    public RedisBatch<V> incr(String key, long delta) {
+        if (delta < 0)
+            throw new RuntimeException("delta can't be less than 0");
+
+        return queueWrite(key, ops -> ops.opsForValue().increment(key, delta), LONG_NORMALIZER);
+    }
+
+    /**
+     * decrement, result -> Long
+     *
+     * @param key
+     * @param delta
+     * @return
+     */
+    public RedisBatch<V> decr(String key, long delta) {
+        if (delta < 0)
+            throw new RuntimeException("delta can't be less than 0");
+
+        return queueWrite(key, ops -> ops.opsForValue().increment(key, -delta), LONG_NORMALIZER);
+    }
+
+    /**
+     * hash get, result -> V
+     *
+     * @param key
+     * @param item
+     * @return
+     */
+    public RedisBatch<V> hget(String key, String item) {
+        return queue(ops -> ops.opsForHash().get(key, item), RAW_NORMALIZER);
+    }
+
+    /**
+     * hash set, result -> Boolean
+     *
+     * @param key
+     * @param item
+     * @param value
+     * @return
+     */
+    public RedisBatch<V> hset(String key, String item, V value) {
+        return queue(ops -> ops.opsForHash().put(key, item, value), SUCCESS_NORMALIZER);
+    }
+
+    /**
+     * hash set all, result -> Boolean
+     *
+     * @param key
+     * @param map
+     * @return
+     */
+    public RedisBatch<V> hmset(String key, Map<String, ? extends V> map) {
+        return queue(ops -> ops.opsForHash().putAll(key, map), STATUS_NORMALIZER);
+    }
+
+    /**
+     * hash delete, result -> Long
+     *
+     * @param key
+     * @param items
+     * @return
+     */
+    public RedisBatch<V> hdel(String key, Object... items) {
+        return queue(ops -> ops.opsForHash().delete(key, items), LONG_NORMALIZER);
+    }
+
+    /**
+     * set add, result -> Long
+     *
+     * @param key
+     * @param values
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public RedisBatch<V> sSet(String key, Collection<V> values) {
+        if (isNull(values))
+            throw new RuntimeException("values can't be null");
+
+        V[] members = (V[]) values.toArray();
+        return queue(ops -> ops.opsForSet().add(key, members), LONG_NORMALIZER);
+    }
+
+    /**
+     * list right push, result -> Long
+     *
+     * @param key
+     * @param value
+     * @return
+     */
+    public RedisBatch<V> lSet(String key, V value) {
+        return queue(ops -> ops.opsForList().rightPush(key, value), LONG_NORMALIZER);
+    }
+
+    /**
+     * list right push all, result -> Long
+     *
+     * @param key
+     * @param values
+     * @return
+     */
+    public RedisBatch<V> lSet(String key, Collection<V> values) {
+        return queue(ops -> ops.opsForList().rightPushAll(key, values), LONG_NORMALIZER);
+    }
+
+    /**
+     * zset add, result -> Boolean
+     *
+     * @param key
+     * @param value
+     * @param score
+     * @return
+     */
+    public RedisBatch<V> zAdd(String key, V value, double score) {
+        return queue(ops -> ops.opsForZSet().add(key, value, score), BOOLEAN_NORMALIZER);
+    }
+
+    /**
+     * queued operations count
+     *
+     * @return
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * flush all queued operations in one pipeline
+     *
+     * @return
+     */
+    public RedisBatchResult execute() {
+        if (commands.isEmpty())
+            return new RedisBatchResult(emptyList());
+
+        List<Object> raws = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, HV> Object execute(@NonNull RedisOperations<K, HV> operations) throws DataAccessException {
+                RedisOperations<String, V> ops = (RedisOperations<String, V>) operations;
+                for (Consumer<RedisOperations<String, V>> command : commands)
+                    command.accept(ops);
+                return null;
+            }
+        });
+
+        int size = commands.size();
+        List<Object> results = new ArrayList<>(size);
+
+        int rawIndex = 0;
+        Function<Object, Object> normalizer;
+        for (int i = 0; i < size; i++) {
+            normalizer = normalizers.get(i);
+            if (normalizer == STATUS_NORMALIZER) {
+                results.add(normalizer.apply(null));
+                continue;
+            }
+            if (rawIndex >= raws.size())
+                throw new RuntimeException("pipeline results size mismatch, raws size = " + raws.size());
+
+            results.add(normalizer.apply(raws.get(rawIndex++)));
+        }
+
+        commands.clear();
+        normalizers.clear();
+
+        return new RedisBatchResult(results);
+    }
+
+}
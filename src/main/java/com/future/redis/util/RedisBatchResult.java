@@ -0,0 +1,91 @@
+package com.future.redis.util;
+
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Optional.ofNullable;
+
+/**
+ * pipelined batch results, in the order of queued operations
+ *
+ * @author liuyunfei
+ */
+@SuppressWarnings({"JavaDoc", "unused", "AliControlFlowStatementWithoutBraces"})
+public final class RedisBatchResult {
+
+    private final List<Object> results;
+
+    RedisBatchResult(List<Object> results) {
+        this.results = unmodifiableList(results);
+    }
+
+    /**
+     * result of the operation at index
+     *
+     * @param index
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(int index) {
+        return (T) results.get(index);
+    }
+
+    /**
+     * result of the operation at index
+     *
+     * @param index
+     * @param clz
+     * @param <T>
+     * @return
+     */
+    public <T> T get(int index, Class<T> clz) {
+        return clz.cast(results.get(index));
+    }
+
+    /**
+     * boolean result of the operation at index
+     *
+     * @param index
+     * @return
+     */
+    public boolean getBoolean(int index) {
+        return Boolean.TRUE.equals(results.get(index));
+    }
+
+    /**
+     * long result of the operation at index
+     *
+     * @param index
+     * @return
+     */
+    public long getLong(int index) {
+        return ofNullable(results.get(index)).map(r -> ((Number) r).longValue()).orElse(0L);
+    }
+
+    /**
+     * results count
+     *
+     * @return
+     */
+    public int size() {
+        return results.size();
+    }
+
+    /**
+     * all results
+     *
+     * @return
+     */
+    public List<Object> getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        return "RedisBatchResult{" +
+                "results=" + results +
+                '}';
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.future.redis.util;
+
+import com.future.redis.common.ProNativeConnection;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 原始字节操作,值不经过任何序列化,直接写入/读取redis中的字节
+ * <p>
+ * key与hash item按UTF-8编码,与RedisStringUtil的key互通,值与RedisUtil/RedisStringUtil不互通
+ * <p>
+ * ByteBuffer写入时,完整包装数组的堆内ByteBuffer不复制,其余复制剩余部分;读取的ByteBuffer包装返回的数组
+ */
+@Component
+@AutoConfigureAfter({LettuceConnectionFactory.class})
+@SuppressWarnings({"unused", "AliControlFlowStatementWithoutBraces"})
+public class RedisBytesUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisBytesUtil.class);
+    private final ProNativeConnection nativeConnection;
+
+    private static RedisClusterCommands<byte[], byte[]> staticSyncCommands;
+
+
+    public RedisBytesUtil(ProNativeConnection nativeConnection) {
+        this.nativeConnection = nativeConnection;
+    }
+
+    @PostConstruct
+    public void init() {
+        staticSyncCommands = this.nativeConnection.sync();
+    }
+
+    // ============================get=============================
+
+    /**
+     * 普通缓存获取
+     *
+     * @param key 键
+     * @return 值
+     */
+    public static byte[] get(String key) {
+        return key == null ? null : staticSyncCommands.get(rawKey(key));
+    }
+
+    /**
+     * 普通缓存获取
+     *
+     * @param key 键
+     * @return 值
+     */
+    public static ByteBuffer getBuffer(String key) {
+        return wrap(get(key));
+    }
+
+    /**
+     * 批量普通缓存获取,集群模式下跨slot的key由lettuce按slot拆分
+     *
+     * @param keys 键
+     * @return 值 与键顺序一致,不存在的为null
+     */
+    public static List<byte[]> mget(List<String> keys) {
+        if (keys == null || keys.isEmpty())
+            return new ArrayList<>(0);
+
+        byte[][] rawKeys = new byte[keys.size()][];
+        int i = 0;
+        for (String key : keys)
+            rawKeys[i++] = rawKey(key);
+
+        List<KeyValue<byte[], byte[]>> kvs = staticSyncCommands.mget(rawKeys);
+        List<byte[]> values = new ArrayList<>(kvs.size());
+        for (KeyValue<byte[], byte[]> kv : kvs)
+            values.add(kv.getValueOrElse(null));
+
+        return values;
+    }
+
+    // ============================set=============================
+
+    /**
+     * 普通缓存放入
+     *
+     * @param key   键
+     * @param value 值
+     * @return true成功 false失败
+     */
+    public static boolean set(String key, byte[] value) {
+        try {
+            staticSyncCommands.set(rawKey(key), value);
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("set", e);
+            return false;
+        }
+    }
+
+    /**
+     * 普通缓存放入并设置时间
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false失败
+     */
+    public static boolean set(String key, byte[] value, long time) {
+        try {
+            if (time > 0)
+                staticSyncCommands.setex(rawKey(key), time, value);
+            else
+                staticSyncCommands.set(rawKey(key), value);
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("set", e);
+            return false;
+        }
+    }
+
+    /**
+     * 普通缓存放入
+     *
+     * @param key   键
+     * @param value 值
+     * @return true成功 false失败
+     */
+    public static boolean set(String key, ByteBuffer value) {
+        return set(key, bytes(value));
+    }
+
+    /**
+     * 普通缓存放入并设置时间
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false失败
+     */
+    public static boolean set(String key, ByteBuffer value, long time) {
+        return set(key, bytes(value), time);
+    }
+
+    // ================================Map=================================
+
+    /**
+     * HashGet
+     *
+     * @param key  键 不能为null
+     * @param item 项 不能为null
+     * @return 值
+     */
+    public static byte[] hget(String key, String item) {
+        return staticSyncCommands.hget(rawKey(key), rawKey(item));
+    }
+
+    /**
+     * HashGet
+     *
+     * @param key  键 不能为null
+     * @param item 项 不能为null
+     * @return 值
+     */
+    public static ByteBuffer hgetBuffer(String key, String item) {
+        return wrap(hget(key, item));
+    }
+
+    /**
+     * 向一张hash表中放入数据,如果不存在将创建
+     *
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @return true 成功 false失败
+     */
+    public static boolean hset(String key, String item, byte[] value) {
+        try {
+            staticSyncCommands.hset(rawKey(key), rawKey(item), value);
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("hset", e);
+            return false;
+        }
+    }
+
+    /**
+     * 向一张hash表中放入数据,如果不存在将创建
+     *
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @return true 成功 false失败
+     */
+    public static boolean hset(String key, String item, ByteBuffer value) {
+        return hset(key, item, bytes(value));
+    }
+
+    // ============================internal=============================
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(UTF_8);
+    }
+
+    private static ByteBuffer wrap(byte[] value) {
+        return value == null ? null : ByteBuffer.wrap(value);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        if (buffer == null)
+            return null;
+
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.remaining() == buffer.array().length)
+            return buffer.array();
+
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+}
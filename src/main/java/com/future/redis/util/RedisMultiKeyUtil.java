@@ -0,0 +1,258 @@
+package com.future.redis.util;
+
+import com.future.redis.common.ProNativeConnection;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.output.BooleanOutput;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.output.ValueListOutput;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.constant.RedisScripts.MULTI_SET_WITH_EXPIRE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Optional.ofNullable;
+
+/**
+ * 多key操作,集群模式下按slot拆分,每个slot一条命令,同一节点的命令在一次flush中批量写出,结果按调用方key的顺序返回
+ * <p>
+ * 单机模式下所有key在一条命令中发送
+ */
+@Component
+@AutoConfigureAfter({RedisTemplate.class})
+@SuppressWarnings({"unused", "AliControlFlowStatementWithoutBraces"})
+public class RedisMultiKeyUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisMultiKeyUtil.class);
+    private final ProNativeConnection nativeConnection;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private static ProNativeConnection staticNativeConnection;
+    private static RedisSerializer<Object> staticValueSerializer;
+
+    private static final RedisSerializer<String> STRING_SERIALIZER = RedisSerializer.string();
+
+    private static final ByteArrayCodec CODEC = ByteArrayCodec.INSTANCE;
+
+    private static final String NO_SCRIPT_ERROR = "NOSCRIPT";
+
+    private static final RedisScript<Boolean> MULTI_SET_WITH_EXPIRE_SCRIPT = generateScriptByScriptStr(MULTI_SET_WITH_EXPIRE.str, Boolean.class);
+
+
+    public RedisMultiKeyUtil(ProNativeConnection nativeConnection, RedisTemplate<String, Object> redisTemplate) {
+        this.nativeConnection = nativeConnection;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void init() {
+        staticNativeConnection = this.nativeConnection;
+        staticValueSerializer = (RedisSerializer<Object>) this.redisTemplate.getValueSerializer();
+    }
+
+    // ============================get=============================
+
+    /**
+     * 批量普通缓存获取
+     *
+     * @param keys 键
+     * @return 值 与键顺序一致,不存在的为null
+     */
+    public static List<Object> mget(List<String> keys) {
+        return mget(keys, staticValueSerializer::deserialize);
+    }
+
+    /**
+     * 批量普通缓存获取
+     *
+     * @param keys 键
+     * @return 值 与键顺序一致,不存在的为null
+     */
+    public static List<String> mgetStr(List<String> keys) {
+        return mget(keys, STRING_SERIALIZER::deserialize);
+    }
+
+    // ============================set=============================
+
+    /**
+     * 批量普通缓存放入并设置时间
+     *
+     * @param map  键值
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false失败
+     */
+    public static boolean mset(Map<String, Object> map, long time) {
+        try {
+            return mset(map, time, staticValueSerializer::serialize);
+        } catch (Exception e) {
+            LOGGER.error("mset", e);
+            return false;
+        }
+    }
+
+    /**
+     * 批量普通缓存放入并设置时间
+     *
+     * @param map  键值
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false失败
+     */
+    public static boolean msetStr(Map<String, String> map, long time) {
+        try {
+            return mset(map, time, STRING_SERIALIZER::serialize);
+        } catch (Exception e) {
+            LOGGER.error("msetStr", e);
+            return false;
+        }
+    }
+
+    // ============================del=============================
+
+    /**
+     * 批量删除缓存
+     *
+     * @param keys 键
+     * @return 删除的个数
+     */
+    public static long del(Collection<String> keys) {
+        if (keys == null || keys.isEmpty())
+            return 0L;
+
+        byte[][] rawKeys = rawKeys(keys);
+        Map<Integer, CompletableFuture<Long>> futures = staticNativeConnection.dispatchBySlot(staticNativeConnection.partitionBySlot(rawKeys),
+                (slot, indexes) -> new Command<>(CommandType.DEL, new IntegerOutput<>(CODEC), new CommandArgs<>(CODEC).addKeys(select(rawKeys, indexes))));
+
+        long count = 0L;
+        for (CompletableFuture<Long> future : futures.values())
+            count += ofNullable(join(future)).orElse(0L);
+
+        return count;
+    }
+
+    // ============================internal=============================
+
+    private static <V> List<V> mget(List<String> keys, Function<byte[], V> deserializer) {
+        if (keys == null || keys.isEmpty())
+            return new ArrayList<>(0);
+
+        byte[][] rawKeys = rawKeys(keys);
+        Map<Integer, List<Integer>> partitions = staticNativeConnection.partitionBySlot(rawKeys);
+        Map<Integer, CompletableFuture<List<byte[]>>> futures = staticNativeConnection.dispatchBySlot(partitions,
+                (slot, indexes) -> new Command<>(CommandType.MGET, new ValueListOutput<>(CODEC), new CommandArgs<>(CODEC).addKeys(select(rawKeys, indexes))));
+
+        V[] values = newArray(rawKeys.length);
+        List<byte[]> rawValues;
+        List<Integer> indexes;
+        for (Map.Entry<Integer, List<Integer>> partition : partitions.entrySet()) {
+            indexes = partition.getValue();
+            rawValues = join(futures.get(partition.getKey()));
+            for (int i = 0; i < indexes.size(); i++)
+                values[indexes.get(i)] = deserializer.apply(rawValues.get(i));
+        }
+
+        return new ArrayList<>(Arrays.asList(values));
+    }
+
+    private static <V> boolean mset(Map<String, V> map, long time, Function<V, byte[]> serializer) {
+        if (map == null || map.isEmpty())
+            return true;
+
+        int size = map.size();
+        byte[][] rawKeys = new byte[size][];
+        byte[][] rawValues = new byte[size][];
+        int i = 0;
+        for (Map.Entry<String, V> entry : map.entrySet()) {
+            rawKeys[i] = entry.getKey().getBytes(UTF_8);
+            rawValues[i++] = serializer.apply(entry.getValue());
+        }
+
+        byte[] ttl = String.valueOf(time).getBytes(UTF_8);
+        Map<Integer, List<Integer>> partitions = staticNativeConnection.partitionBySlot(rawKeys);
+        Map<Integer, byte[][]> argsBySlot = new HashMap<>((int) (partitions.size() / 0.75f) + 1);
+        byte[][] args;
+        for (Map.Entry<Integer, List<Integer>> partition : partitions.entrySet()) {
+            List<Integer> indexes = partition.getValue();
+            args = new byte[indexes.size() + 1][];
+            args[0] = ttl;
+            for (int j = 0; j < indexes.size(); j++)
+                args[j + 1] = rawValues[indexes.get(j)];
+            argsBySlot.put(partition.getKey(), args);
+        }
+
+        Map<Integer, CompletableFuture<Boolean>> futures = staticNativeConnection.dispatchBySlot(partitions, (slot, indexes) -> {
+            byte[][] keys = select(rawKeys, indexes);
+            return new Command<>(CommandType.EVALSHA, new BooleanOutput<>(CODEC),
+                    new CommandArgs<>(CODEC).add(MULTI_SET_WITH_EXPIRE_SCRIPT.getSha1()).add(keys.length).addKeys(keys).addValues(argsBySlot.get(slot)));
+        });
+
+        boolean success = true;
+        Boolean result;
+        for (Map.Entry<Integer, List<Integer>> partition : partitions.entrySet()) {
+            try {
+                result = join(futures.get(partition.getKey()));
+            } catch (RuntimeException e) {
+                if (!noScript(e))
+                    throw e;
+                // script not cached by the node yet, evalsha falls back to eval
+                result = join(staticNativeConnection.evalsha(MULTI_SET_WITH_EXPIRE_SCRIPT, ScriptOutputType.BOOLEAN,
+                        select(rawKeys, partition.getValue()), argsBySlot.get(partition.getKey())));
+            }
+            success &= Boolean.TRUE.equals(result);
+        }
+
+        return success;
+    }
+
+    private static byte[][] rawKeys(Collection<String> keys) {
+        byte[][] rawKeys = new byte[keys.size()][];
+        int i = 0;
+        for (String key : keys)
+            rawKeys[i++] = key.getBytes(UTF_8);
+        return rawKeys;
+    }
+
+    private static byte[][] select(byte[][] raws, List<Integer> indexes) {
+        byte[][] selected = new byte[indexes.size()][];
+        for (int i = 0; i < selected.length; i++)
+            selected[i] = raws[indexes.get(i)];
+        return selected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V[] newArray(int length) {
+        return (V[]) new Object[length];
+    }
+
+    private static boolean noScript(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause() == c ? null : c.getCause())
+            if (c.getMessage() != null && c.getMessage().contains(NO_SCRIPT_ERROR))
+                return true;
+
+        return false;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+}
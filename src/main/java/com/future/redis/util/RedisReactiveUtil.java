@@ -0,0 +1,305 @@
+package com.future.redis.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 响应式操作,与RedisUtil使用相同的序列化,数据互通
+ */
+@Component
+@AutoConfigureAfter({ReactiveRedisTemplate.class})
+@SuppressWarnings({"unused"})
+public class RedisReactiveUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisReactiveUtil.class);
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    private static ReactiveRedisTemplate<String, Object> staticReactiveRedisTemplate;
+
+
+    public RedisReactiveUtil(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        staticReactiveRedisTemplate = this.reactiveRedisTemplate;
+    }
+
+    // =============================common============================
+
+    /**
+     * 指定缓存失效时间
+     *
+     * @param key  键
+     * @param time 时间(秒)
+     */
+    public static Mono<Boolean> expire(String key, long time) {
+        return time > 0 ? staticReactiveRedisTemplate.expire(key, Duration.ofSeconds(time)) : Mono.just(true);
+    }
+
+    /**
+     * 根据key 获取过期时间
+     *
+     * @param key 键 不能为null
+     * @return 时间(秒) 返回0代表为永久有效
+     */
+    public static Mono<Long> getExpire(String key) {
+        return staticReactiveRedisTemplate.getExpire(key).map(Duration::getSeconds);
+    }
+
+    /**
+     * 判断key是否存在
+     *
+     * @param key 键
+     * @return true 存在 false不存在
+     */
+    public static Mono<Boolean> hasKey(String key) {
+        return staticReactiveRedisTemplate.hasKey(key);
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key 可以传一个值 或多个
+     * @return 删除的个数
+     */
+    public static Mono<Long> del(String... key) {
+        if (key == null || key.length == 0)
+            return Mono.just(0L);
+
+        return staticReactiveRedisTemplate.delete(key);
+    }
+
+    // ============================String=============================
+
+    /**
+     * 普通缓存获取
+     *
+     * @param key 键
+     * @return 值
+     */
+    public static Mono<Object> get(String key) {
+        return key == null ? Mono.empty() : staticReactiveRedisTemplate.opsForValue().get(key);
+    }
+
+    /**
+     * 普通缓存获取
+     *
+     * @param key 键
+     * @return 值
+     */
+    public static Mono<String> getStr(String key) {
+        return get(key).map(Object::toString);
+    }
+
+    /**
+     * 批量普通缓存获取
+     *
+     * @param keys 键
+     * @return 值
+     */
+    public static Mono<List<Object>> mget(List<String> keys) {
+        return staticReactiveRedisTemplate.opsForValue().multiGet(keys);
+    }
+
+    /**
+     * 普通缓存放入
+     *
+     * @param key   键
+     * @param value 值
+     * @return true成功 false失败
+     */
+    public static Mono<Boolean> set(String key, Object value) {
+        return staticReactiveRedisTemplate.opsForValue().set(key, value);
+    }
+
+    /**
+     * 普通缓存放入并设置时间
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false 失败
+     */
+    public static Mono<Boolean> set(String key, Object value, long time) {
+        return time > 0 ?
+                staticReactiveRedisTemplate.opsForValue().set(key, value, Duration.ofSeconds(time))
+                :
+                set(key, value);
+    }
+
+    /**
+     * 递增
+     *
+     * @param key   键
+     * @param delta 要增加几(大于0)
+     */
+    public static Mono<Long> incr(String key, long delta) {
+        if (delta < 0) {
+            return Mono.error(new RuntimeException("递增因子必须大于0"));
+        }
+        return staticReactiveRedisTemplate.opsForValue().increment(key, delta);
+    }
+
+    /**
+     * 递减
+     *
+     * @param key   键
+     * @param delta 要减少几(小于0)
+     */
+    public static Mono<Long> decr(String key, long delta) {
+        if (delta < 0) {
+            return Mono.error(new RuntimeException("递减因子必须大于0"));
+        }
+        return staticReactiveRedisTemplate.opsForValue().decrement(key, delta);
+    }
+
+    // ================================Map=================================
+
+    /**
+     * HashGet
+     *
+     * @param key  键 不能为null
+     * @param item 项 不能为null
+     */
+    public static Mono<Object> hget(String key, String item) {
+        return staticReactiveRedisTemplate.opsForHash().get(key, item);
+    }
+
+    /**
+     * 获取hashKey对应的所有键值
+     *
+     * @param key 键
+     * @return 对应的多个键值
+     */
+    public static Mono<Map<Object, Object>> hmget(String key) {
+        return staticReactiveRedisTemplate.opsForHash().entries(key)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * HashSet
+     *
+     * @param key 键
+     * @param map 对应多个键值
+     */
+    public static Mono<Boolean> hmset(String key, Map<String, Object> map) {
+        return staticReactiveRedisTemplate.opsForHash().putAll(key, map);
+    }
+
+    /**
+     * 向一张hash表中放入数据,如果不存在将创建
+     *
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @return true 成功 false失败
+     */
+    public static Mono<Boolean> hset(String key, String item, Object value) {
+        return staticReactiveRedisTemplate.opsForHash().put(key, item, value).thenReturn(true);
+    }
+
+    /**
+     * 删除hash表中的值
+     *
+     * @param key  键 不能为null
+     * @param item 项 可以使多个 不能为null
+     * @return 删除的个数
+     */
+    public static Mono<Long> hdel(String key, Object... item) {
+        return staticReactiveRedisTemplate.opsForHash().remove(key, item);
+    }
+
+    /**
+     * 判断hash表中是否有该项的值
+     *
+     * @param key  键 不能为null
+     * @param item 项 不能为null
+     * @return true 存在 false不存在
+     */
+    public static Mono<Boolean> hHasKey(String key, String item) {
+        return staticReactiveRedisTemplate.opsForHash().hasKey(key, item);
+    }
+
+    // ============================set=============================
+
+    /**
+     * 根据key获取Set中的所有值
+     *
+     * @param key 键
+     */
+    public static Flux<Object> sGet(String key) {
+        return staticReactiveRedisTemplate.opsForSet().members(key);
+    }
+
+    /**
+     * 根据value从一个set中查询,是否存在
+     *
+     * @param key   键
+     * @param value 值
+     * @return true 存在 false不存在
+     */
+    public static Mono<Boolean> sHasKey(String key, Object value) {
+        return staticReactiveRedisTemplate.opsForSet().isMember(key, value);
+    }
+
+    /**
+     * 将数据放入set缓存
+     *
+     * @param key    键
+     * @param values 值 可以是多个
+     * @return 成功个数
+     */
+    public static Mono<Long> sSet(String key, Object... values) {
+        return staticReactiveRedisTemplate.opsForSet().add(key, values);
+    }
+
+    // ===============================list=================================
+
+    /**
+     * 获取list缓存的内容
+     *
+     * @param key   键
+     * @param start 开始
+     * @param end   结束 0 到 -1代表所有值
+     */
+    public static Flux<Object> lGet(String key, long start, long end) {
+        return staticReactiveRedisTemplate.opsForList().range(key, start, end);
+    }
+
+    /**
+     * 将list放入缓存
+     *
+     * @param key    键
+     * @param values 值 可以是多个
+     * @return list长度
+     */
+    public static Mono<Long> lSet(String key, Object... values) {
+        return staticReactiveRedisTemplate.opsForList().rightPushAll(key, values);
+    }
+
+    // ===============================zSet=================================
+
+    /**
+     * zset 添加
+     *
+     * @param key   键
+     * @param value 值
+     * @param score 分数
+     * @return boolean
+     */
+    public static Mono<Boolean> zAdd(String key, Object value, double score) {
+        return staticReactiveRedisTemplate.opsForZSet().add(key, value, score);
+    }
+}
@@ -1,20 +1,52 @@
 package com.future.redis.util;
 
+import com.future.redis.api.conf.RedisConf;
+import com.future.redis.common.ProCounter;
+import com.future.redis.common.ProCounterFlusher;
+import com.future.redis.common.ProKeyScanner;
+import com.future.redis.common.ProNativeConnection;
+import com.future.redis.common.ProNearCache;
+import com.future.redis.common.ProPagedListIterator;
+import com.future.redis.common.ProReadCoalescer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.future.redis.api.generator.ProRedisGenerator.counterFlushEnabled;
+import static com.future.redis.api.generator.ProRedisGenerator.generateCounterFlusher;
+import static com.future.redis.api.generator.ProRedisGenerator.generateNearCache;
+import static com.future.redis.api.generator.ProRedisGenerator.generateReadCoalescer;
+import static com.future.redis.api.generator.ProRedisGenerator.nearCacheEnabled;
+import static com.future.redis.api.generator.ProRedisGenerator.readCoalesceEnabled;
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.constant.RedisScripts.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
 import static java.util.Optional.ofNullable;
 
 @Component
@@ -24,17 +56,73 @@ public class RedisStringUtil {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisStringUtil.class);
     private final StringRedisTemplate stringRedisTemplate;
+    private final RedisConf redisConf;
+    private final ProNativeConnection nativeConnection;
 
     private static StringRedisTemplate staticStringRedisTemplate;
+    private static ProReadCoalescer<String> staticReadCoalescer;
+    private static ProKeyScanner staticKeyScanner;
+    private static ProNearCache staticNearCache;
+    private static ProCounterFlusher staticCounterFlusher;
+
+
+    private static final RedisScript<Boolean> HASH_PUT_ALL_WITH_EXPIRE_SCRIPT = generateScriptByScriptStr(HASH_PUT_ALL_WITH_EXPIRE.str, Boolean.class);
 
+    private static final RedisScript<Long> LIST_RIGHT_PUSH_ALL_WITH_EXPIRE_SCRIPT = generateScriptByScriptStr(LIST_RIGHT_PUSH_ALL_WITH_EXPIRE.str, Long.class);
+
+    private static final RedisScript<Long> SET_ADD_ALL_WITH_EXPIRE_SCRIPT = generateScriptByScriptStr(SET_ADD_ALL_WITH_EXPIRE.str, Long.class);
 
     public RedisStringUtil(StringRedisTemplate stringRedisTemplate) {
+        this(stringRedisTemplate, null, null);
+    }
+
+    @Autowired
+    public RedisStringUtil(StringRedisTemplate stringRedisTemplate, RedisConf redisConf, ProNativeConnection nativeConnection) {
         this.stringRedisTemplate = stringRedisTemplate;
+        this.redisConf = redisConf;
+        this.nativeConnection = nativeConnection;
     }
 
     @PostConstruct
     public void init() {
         staticStringRedisTemplate = this.stringRedisTemplate;
+        staticKeyScanner = this.nativeConnection != null ? new ProKeyScanner(this.nativeConnection) : null;
+        if (readCoalesceEnabled(redisConf))
+            staticReadCoalescer = generateReadCoalescer(redisConf, "redis-string-util-read-coalescer", asyncMultiGetter(nativeConnection));
+        if (nearCacheEnabled(redisConf))
+            staticNearCache = generateNearCache(redisConf, nativeConnection);
+        if (counterFlushEnabled(redisConf))
+            staticCounterFlusher = generateCounterFlusher(redisConf, "redis-string-util-counter-flusher", staticStringRedisTemplate);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        staticKeyScanner = null;
+        if (staticReadCoalescer != null) {
+            staticReadCoalescer.close();
+            staticReadCoalescer = null;
+        }
+        if (staticNearCache != null) {
+            staticNearCache.close();
+            staticNearCache = null;
+        }
+        if (staticCounterFlusher != null) {
+            staticCounterFlusher.close();
+            staticCounterFlusher = null;
+        }
+    }
+
+    // =============================batch============================
+
+    /**
+     * 批量操作,所有操作在一次pipeline中发送
+     * <p>
+     * RedisStringUtil.batch().set(k, v).hset(k, item, v).expire(k, time).execute()
+     *
+     * @return 批量操作
+     */
+    public static RedisBatch<String> batch() {
+        return new RedisBatch<>(staticStringRedisTemplate, RedisStringUtil::invalidateNearCache);
     }
 
     // =============================common============================
@@ -48,6 +136,7 @@ public class RedisStringUtil {
     public static boolean expire(String key, long time) {
         try {
             if (time > 0) {
+                invalidateNearCache(key);
                 staticStringRedisTemplate.expire(key, time, TimeUnit.SECONDS);
             }
             return true;
@@ -85,13 +174,14 @@ public class RedisStringUtil {
 
 
     /**
-     * 删除缓存
+     * 删除缓存,集群模式下key跨slot时使用RedisMultiKeyUtil.del
      *
      * @param key 可以传一个值 或多个
      */
     @SuppressWarnings("unchecked")
     public static void del(String... key) {
         if (key != null && key.length > 0) {
+            invalidateNearCache(key);
             if (key.length == 1) {
                 staticStringRedisTemplate.delete(key[0]);
             } else {
@@ -101,16 +191,54 @@ public class RedisStringUtil {
     }
 
 
+    /**
+     * 按模式遍历key,基于SCAN游标惰性加载,集群模式下并行遍历所有主节点
+     * <p>
+     * 每个节点最多只有一页结果在途,不持有连接,未消费完的Stream可直接丢弃
+     *
+     * @param pattern   模式 如 user:*
+     * @param batchSize 每次SCAN的数量提示
+     * @return key
+     */
+    public static Stream<String> scan(String pattern, int batchSize) {
+        return keyScanner().scan(pattern, batchSize);
+    }
+
+
+    /**
+     * 按模式删除key,SCAN出的key每batchSize个执行一次UNLINK,内存占用有上限
+     *
+     * @param pattern   模式 如 user:*
+     * @param batchSize 每批数量
+     * @return 删除的个数
+     */
+    public static long deleteByPattern(String pattern, int batchSize) {
+        ProKeyScanner keyScanner = keyScanner();
+        // matched keys are not known before the scan, drop the whole near cache
+        if (staticNearCache != null)
+            staticNearCache.invalidateAll();
+        return keyScanner.unlinkByPattern(pattern, batchSize);
+    }
+
+
     // ============================String=============================
 
     /**
-     * 普通缓存获取
+     * 普通缓存获取,开启readCoalesceWindowMicros后并发的单key读取会合并为一次mget
+     * <p>
+     * 开启nearCacheMaxSize后优先读取本地近端缓存,本地副本由服务端CLIENT TRACKING推送失效,
+     * 本类的写入在发送命令前先失效本地副本,其他客户端的写入由服务端推送异步失效
      *
      * @param key 键
      * @return 值
      */
     public static String get(String key) {
-        return key == null ? null : staticStringRedisTemplate.opsForValue().get(key);
+        if (key == null)
+            return null;
+        if (staticNearCache != null)
+            return ofNullable(staticNearCache.get(key)).map(raw -> new String(raw, UTF_8)).orElse(null);
+
+        return staticReadCoalescer != null ? staticReadCoalescer.get(key) : staticStringRedisTemplate.opsForValue().get(key);
     }
 
 
@@ -121,11 +249,11 @@ public class RedisStringUtil {
      * @return 值
      */
     public static String getStr(String key) {
-        return key == null ? null : staticStringRedisTemplate.opsForValue().get(key);
+        return get(key);
     }
 
     /**
-     * 批量普通缓存获取
+     * 批量普通缓存获取,集群模式下key跨slot时使用RedisMultiKeyUtil.mget
      *
      * @param keys 键
      * @return 值
@@ -144,6 +272,7 @@ public class RedisStringUtil {
 
     public static boolean set(String key, String value) {
         try {
+            invalidateNearCache(key);
             staticStringRedisTemplate.opsForValue().set(key, value);
             return true;
         } catch (Exception e) {
@@ -164,6 +293,7 @@ public class RedisStringUtil {
     public static boolean set(String key, String value, long time) {
         try {
             if (time > 0) {
+                invalidateNearCache(key);
                 staticStringRedisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
             } else {
                 set(key, value);
@@ -177,7 +307,33 @@ public class RedisStringUtil {
 
 
     /**
-     * 递增
+     * 异步批量计数器,增减先在本地累加,按counterFlushIntervalMillis周期以一次pipeline的INCRBY写入,
+     * 单个计数器本地增量达到counterFlushThreshold时提前写入,关闭时写入剩余增量,需配置counterFlushIntervalMillis大于0
+     * <p>
+     * RedisStringUtil.counter(k).incr()
+     *
+     * @param key 键
+     * @return 计数器
+     */
+    public static ProCounter counter(String key) {
+        if (staticCounterFlusher == null)
+            throw new RuntimeException("counter requires counterFlushIntervalMillis greater than 0");
+
+        return staticCounterFlusher.counter(key);
+    }
+
+    /**
+     * 立即写入所有计数器的本地增量
+     *
+     * @return 写入的计数器个数
+     */
+    public static int flushCounters() {
+        return staticCounterFlusher == null ? 0 : staticCounterFlusher.flush();
+    }
+
+
+    /**
+     * 递增,高频计数使用counter
      *
      * @param key   键
      * @param delta 要增加几(大于0)
@@ -186,6 +342,7 @@ public class RedisStringUtil {
         if (delta < 0) {
             throw new RuntimeException("递增因子必须大于0");
         }
+        invalidateNearCache(key);
         return staticStringRedisTemplate.opsForValue().increment(key, delta);
     }
 
@@ -200,6 +357,7 @@ public class RedisStringUtil {
         if (delta < 0) {
             throw new RuntimeException("递减因子必须大于0");
         }
+        invalidateNearCache(key);
         return staticStringRedisTemplate.opsForValue().increment(key, -delta);
     }
 
@@ -226,6 +384,19 @@ public class RedisStringUtil {
         return staticStringRedisTemplate.opsForHash().entries(key);
     }
 
+    /**
+     * 基于HSCAN游标分页遍历hash,逐条反序列化,内存占用与hash大小无关
+     * <p>
+     * 返回的Stream持有游标,需要使用try-with-resources关闭
+     *
+     * @param key      键
+     * @param pageSize 每页数量提示
+     * @return 键值
+     */
+    public static Stream<Map.Entry<Object, Object>> hScan(String key, int pageSize) {
+        return staticStringRedisTemplate.opsForHash().scan(key, ScanOptions.scanOptions().count(pageSize).build()).stream();
+    }
+
     /**
      * HashSet
      *
@@ -265,6 +436,30 @@ public class RedisStringUtil {
     }
 
 
+    /**
+     * HashSet 并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key  键
+     * @param map  对应多个键值
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false失败
+     */
+    public static boolean hmsetWithExpire(String key, Map<String, String> map, long time) {
+        try {
+            List<String> args = new ArrayList<>((map.size() << 1) + 1);
+            args.add(String.valueOf(time));
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                args.add(entry.getKey());
+                args.add(entry.getValue());
+            }
+            return Boolean.TRUE.equals(staticStringRedisTemplate.execute(HASH_PUT_ALL_WITH_EXPIRE_SCRIPT, singletonList(key), args.toArray()));
+        } catch (Exception e) {
+            LOGGER.error("hmsetWithExpire", e);
+            return false;
+        }
+    }
+
+
     /**
      * 向一张hash表中放入数据,如果不存在将创建
      *
@@ -305,6 +500,24 @@ public class RedisStringUtil {
         }
     }
 
+    /**
+     * 向一张hash表中放入数据并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @param time  时间(秒) 注意:如果已存在的hash表有时间,这里将会替换原有的时间
+     * @return true 成功 false失败
+     */
+    public static boolean hsetWithExpire(String key, String item, String value, long time) {
+        try {
+            return Boolean.TRUE.equals(staticStringRedisTemplate.execute(HASH_PUT_ALL_WITH_EXPIRE_SCRIPT, singletonList(key), String.valueOf(time), item, value));
+        } catch (Exception e) {
+            LOGGER.error("hsetWithExpire", e);
+            return false;
+        }
+    }
+
 
     /**
      * 删除hash表中的值
@@ -370,6 +583,20 @@ public class RedisStringUtil {
     }
 
 
+    /**
+     * 基于SSCAN游标分页遍历set,逐条反序列化,内存占用与set大小无关
+     * <p>
+     * 返回的Stream持有游标,需要使用try-with-resources关闭
+     *
+     * @param key      键
+     * @param pageSize 每页数量提示
+     * @return 值
+     */
+    public static Stream<String> sScan(String key, int pageSize) {
+        return staticStringRedisTemplate.opsForSet().scan(key, ScanOptions.scanOptions().count(pageSize).build()).stream();
+    }
+
+
     /**
      * 根据value从一个set中查询,是否存在
      *
@@ -425,6 +652,27 @@ public class RedisStringUtil {
     }
 
 
+    /**
+     * 将set数据放入缓存并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key    键
+     * @param time   时间(秒)
+     * @param values 值 可以是多个
+     * @return 成功个数
+     */
+    public static long sSetWithExpire(String key, long time, String... values) {
+        try {
+            List<String> args = new ArrayList<>(values.length + 1);
+            args.add(String.valueOf(time));
+            args.addAll(Arrays.asList(values));
+            return ofNullable(staticStringRedisTemplate.execute(SET_ADD_ALL_WITH_EXPIRE_SCRIPT, singletonList(key), args.toArray())).orElse(0L);
+        } catch (Exception e) {
+            LOGGER.error("sSetWithExpire", e);
+            return 0;
+        }
+    }
+
+
     /**
      * 获取set缓存的长度
      *
@@ -476,6 +724,21 @@ public class RedisStringUtil {
     }
 
 
+    /**
+     * 基于LRANGE分页遍历list,每次只加载一页,内存占用与list大小无关
+     * <p>
+     * 遍历过程中头部的插入或删除会导致页偏移
+     *
+     * @param key      键
+     * @param pageSize 每页数量
+     * @return 值
+     */
+    public static Stream<String> lScan(String key, int pageSize) {
+        return StreamSupport.stream(spliteratorUnknownSize(
+                new ProPagedListIterator<>((start, end) -> staticStringRedisTemplate.opsForList().range(key, start, end), pageSize), ORDERED), false);
+    }
+
+
     /**
      * 获取list缓存的长度
      *
@@ -585,6 +848,45 @@ public class RedisStringUtil {
     }
 
 
+    /**
+     * 将list放入缓存并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒)
+     * @return boolean
+     */
+    public static boolean lSetWithExpire(String key, String value, long time) {
+        try {
+            return ofNullable(staticStringRedisTemplate.execute(LIST_RIGHT_PUSH_ALL_WITH_EXPIRE_SCRIPT, singletonList(key), String.valueOf(time), value)).orElse(0L) > 0;
+        } catch (Exception e) {
+            LOGGER.error("lSetWithExpire", e);
+            return false;
+        }
+    }
+
+
+    /**
+     * 将list放入缓存并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒)
+     * @return boolean
+     */
+    public static boolean lSetWithExpire(String key, List<String> value, long time) {
+        try {
+            List<String> args = new ArrayList<>(value.size() + 1);
+            args.add(String.valueOf(time));
+            args.addAll(value);
+            return ofNullable(staticStringRedisTemplate.execute(LIST_RIGHT_PUSH_ALL_WITH_EXPIRE_SCRIPT, singletonList(key), args.toArray())).orElse(0L) > 0;
+        } catch (Exception e) {
+            LOGGER.error("lSetWithExpire", e);
+            return false;
+        }
+    }
+
+
     /**
      * 根据索引修改list中的某条数据
      *
@@ -636,4 +938,53 @@ public class RedisStringUtil {
     public static boolean zAdd(String key, String value, double score) {
         return Boolean.TRUE.equals(staticStringRedisTemplate.opsForZSet().add(key, value, score));
     }
+
+
+    /**
+     * 基于ZSCAN游标分页遍历zset,逐条反序列化,内存占用与zset大小无关
+     * <p>
+     * 返回的Stream持有游标,需要使用try-with-resources关闭
+     *
+     * @param key      键
+     * @param pageSize 每页数量提示
+     * @return 值与分数
+     */
+    public static Stream<ZSetOperations.TypedTuple<String>> zScan(String key, int pageSize) {
+        return staticStringRedisTemplate.opsForZSet().scan(key, ScanOptions.scanOptions().count(pageSize).build()).stream();
+    }
+
+    private static Function<List<String>, CompletableFuture<List<String>>> asyncMultiGetter(ProNativeConnection nativeConnection) {
+        if (nativeConnection == null)
+            throw new RuntimeException("read coalescer can't be initialized, nativeConnection can't be null");
+
+        return keys -> {
+            RedisSerializer<String> serializer = staticStringRedisTemplate.getStringSerializer();
+            byte[][] rawKeys = new byte[keys.size()][];
+            for (int i = 0; i < rawKeys.length; i++)
+                rawKeys[i] = serializer.serialize(keys.get(i));
+
+            return nativeConnection.mget(rawKeys).thenApply(rawValues -> {
+                List<String> values = new ArrayList<>(rawValues.size());
+                for (byte[] rawValue : rawValues)
+                    values.add(serializer.deserialize(rawValue));
+                return values;
+            });
+        };
+    }
+
+    private static void invalidateNearCache(String... keys) {
+        if (staticNearCache == null)
+            return;
+
+        for (String key : keys)
+            if (key != null)
+                staticNearCache.invalidate(key);
+    }
+
+    private static ProKeyScanner keyScanner() {
+        if (staticKeyScanner == null)
+            throw new RuntimeException("key scanner is not initialized, nativeConnection can't be null");
+
+        return staticKeyScanner;
+    }
 }
@@ -1,19 +1,49 @@
 package com.future.redis.util;
 
+import com.future.redis.api.conf.RedisConf;
+import com.future.redis.common.ProHashMapper;
+import com.future.redis.common.ProKeyScanner;
+import com.future.redis.common.ProNativeConnection;
+import com.future.redis.common.ProNearCache;
+import com.future.redis.common.ProPagedListIterator;
+import com.future.redis.common.ProReadCoalescer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.future.redis.api.generator.ProRedisGenerator.generateNearCache;
+import static com.future.redis.api.generator.ProRedisGenerator.generateReadCoalescer;
+import static com.future.redis.api.generator.ProRedisGenerator.nearCacheEnabled;
+import static com.future.redis.api.generator.ProRedisGenerator.readCoalesceEnabled;
+import static com.future.redis.api.generator.ProRedisScriptGenerator.generateScriptByScriptStr;
+import static com.future.redis.common.ProRawScriptExecutor.execute;
+import static com.future.redis.constant.RedisScripts.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
 import static java.util.Optional.ofNullable;
 
 @Component
@@ -23,17 +53,70 @@ public class RedisUtil {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisUtil.class);
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisConf redisConf;
+    private final ProNativeConnection nativeConnection;
 
     private static RedisTemplate<String, Object> staticRedisTemplate;
+    private static ProReadCoalescer<Object> staticReadCoalescer;
+    private static ProKeyScanner staticKeyScanner;
+    private static ProNearCache staticNearCache;
+
+    private static final ConcurrentMap<Class<?>, ProHashMapper<?>> HASH_MAPPERS = new ConcurrentHashMap<>();
+
+
+    private static final RedisScript<Boolean> HASH_PUT_ALL_WITH_EXPIRE_SCRIPT = generateScriptByScriptStr(HASH_PUT_ALL_WITH_EXPIRE.str, Boolean.class);
+
+    private static final RedisScript<Long> LIST_RIGHT_PUSH_ALL_WITH_EXPIRE_SCRIPT = generateScriptByScriptStr(LIST_RIGHT_PUSH_ALL_WITH_EXPIRE.str, Long.class);
 
+    private static final RedisScript<Long> SET_ADD_ALL_WITH_EXPIRE_SCRIPT = generateScriptByScriptStr(SET_ADD_ALL_WITH_EXPIRE.str, Long.class);
+
+    private static final int SCRIPT_KEYS_COUNT = 1;
 
     public RedisUtil(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, null, null);
+    }
+
+    @Autowired
+    public RedisUtil(RedisTemplate<String, Object> redisTemplate, RedisConf redisConf, ProNativeConnection nativeConnection) {
         this.redisTemplate = redisTemplate;
+        this.redisConf = redisConf;
+        this.nativeConnection = nativeConnection;
     }
 
     @PostConstruct
     public void init() {
         staticRedisTemplate = this.redisTemplate;
+        staticKeyScanner = this.nativeConnection != null ? new ProKeyScanner(this.nativeConnection) : null;
+        if (readCoalesceEnabled(redisConf))
+            staticReadCoalescer = generateReadCoalescer(redisConf, "redis-util-read-coalescer", asyncMultiGetter(nativeConnection));
+        if (nearCacheEnabled(redisConf))
+            staticNearCache = generateNearCache(redisConf, nativeConnection);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        staticKeyScanner = null;
+        if (staticReadCoalescer != null) {
+            staticReadCoalescer.close();
+            staticReadCoalescer = null;
+        }
+        if (staticNearCache != null) {
+            staticNearCache.close();
+            staticNearCache = null;
+        }
+    }
+
+    // =============================batch============================
+
+    /**
+     * 批量操作,所有操作在一次pipeline中发送
+     * <p>
+     * RedisUtil.batch().set(k, v).hset(k, item, v).expire(k, time).execute()
+     *
+     * @return 批量操作
+     */
+    public static RedisBatch<Object> batch() {
+        return new RedisBatch<>(staticRedisTemplate, RedisUtil::invalidateNearCache);
     }
 
     // =============================common============================
@@ -47,6 +130,7 @@ public class RedisUtil {
     public static boolean expire(String key, long time) {
         try {
             if (time > 0) {
+                invalidateNearCache(key);
                 staticRedisTemplate.expire(key, time, TimeUnit.SECONDS);
             }
             return true;
@@ -84,13 +168,14 @@ public class RedisUtil {
 
 
     /**
-     * 删除缓存
+     * 删除缓存,集群模式下key跨slot时使用RedisMultiKeyUtil.del
      *
      * @param key 可以传一个值 或多个
      */
     @SuppressWarnings("unchecked")
     public static void del(String... key) {
         if (key != null && key.length > 0) {
+            invalidateNearCache(key);
             if (key.length == 1) {
                 staticRedisTemplate.delete(key[0]);
             } else {
@@ -100,16 +185,54 @@ public class RedisUtil {
     }
 
 
+    /**
+     * 按模式遍历key,基于SCAN游标惰性加载,集群模式下并行遍历所有主节点
+     * <p>
+     * 每个节点最多只有一页结果在途,不持有连接,未消费完的Stream可直接丢弃
+     *
+     * @param pattern   模式 如 user:*
+     * @param batchSize 每次SCAN的数量提示
+     * @return key
+     */
+    public static Stream<String> scan(String pattern, int batchSize) {
+        return keyScanner().scan(pattern, batchSize);
+    }
+
+
+    /**
+     * 按模式删除key,SCAN出的key每batchSize个执行一次UNLINK,内存占用有上限
+     *
+     * @param pattern   模式 如 user:*
+     * @param batchSize 每批数量
+     * @return 删除的个数
+     */
+    public static long deleteByPattern(String pattern, int batchSize) {
+        ProKeyScanner keyScanner = keyScanner();
+        // matched keys are not known before the scan, drop the whole near cache
+        if (staticNearCache != null)
+            staticNearCache.invalidateAll();
+        return keyScanner.unlinkByPattern(pattern, batchSize);
+    }
+
+
     // ============================String=============================
 
     /**
-     * 普通缓存获取
+     * 普通缓存获取,开启readCoalesceWindowMicros后并发的单key读取会合并为一次mget
+     * <p>
+     * 开启nearCacheMaxSize后优先读取本地近端缓存,本地副本由服务端CLIENT TRACKING推送失效,
+     * 本类的写入在发送命令前先失效本地副本,其他客户端的写入由服务端推送异步失效
      *
      * @param key 键
      * @return 值
      */
     public static Object get(String key) {
-        return key == null ? null : staticRedisTemplate.opsForValue().get(key);
+        if (key == null)
+            return null;
+        if (staticNearCache != null)
+            return ofNullable(staticNearCache.get(key)).map(valueSerializer()::deserialize).orElse(null);
+
+        return staticReadCoalescer != null ? staticReadCoalescer.get(key) : staticRedisTemplate.opsForValue().get(key);
     }
 
 
@@ -120,11 +243,11 @@ public class RedisUtil {
      * @return 值
      */
     public static String getStr(String key) {
-        return key == null ? null : ofNullable(staticRedisTemplate.opsForValue().get(key)).map(Object::toString).orElse(null);
+        return key == null ? null : ofNullable(get(key)).map(Object::toString).orElse(null);
     }
 
     /**
-     * 批量普通缓存获取
+     * 批量普通缓存获取,集群模式下key跨slot时使用RedisMultiKeyUtil.mget
      *
      * @param keys 键
      * @return 值
@@ -143,6 +266,7 @@ public class RedisUtil {
 
     public static boolean set(String key, Object value) {
         try {
+            invalidateNearCache(key);
             staticRedisTemplate.opsForValue().set(key, value);
             return true;
         } catch (Exception e) {
@@ -163,6 +287,7 @@ public class RedisUtil {
     public static boolean set(String key, Object value, long time) {
         try {
             if (time > 0) {
+                invalidateNearCache(key);
                 staticRedisTemplate.opsForValue().set(key, value, time, TimeUnit.SECONDS);
             } else {
                 set(key, value);
@@ -176,7 +301,7 @@ public class RedisUtil {
 
 
     /**
-     * 递增
+     * 递增,高频计数使用RedisStringUtil.counter
      *
      * @param key   键
      * @param delta 要增加几(大于0)
@@ -185,6 +310,7 @@ public class RedisUtil {
         if (delta < 0) {
             throw new RuntimeException("递增因子必须大于0");
         }
+        invalidateNearCache(key);
         return staticRedisTemplate.opsForValue().increment(key, delta);
     }
 
@@ -199,6 +325,7 @@ public class RedisUtil {
         if (delta < 0) {
             throw new RuntimeException("递减因子必须大于0");
         }
+        invalidateNearCache(key);
         return staticRedisTemplate.opsForValue().increment(key, -delta);
     }
 
@@ -225,6 +352,34 @@ public class RedisUtil {
         return staticRedisTemplate.opsForHash().entries(key);
     }
 
+    /**
+     * 基于HSCAN游标分页遍历hash,逐条反序列化,内存占用与hash大小无关
+     * <p>
+     * 返回的Stream持有游标,需要使用try-with-resources关闭
+     *
+     * @param key      键
+     * @param pageSize 每页数量提示
+     * @return 键值
+     */
+    public static Stream<Map.Entry<Object, Object>> hScan(String key, int pageSize) {
+        return staticRedisTemplate.opsForHash().scan(key, ScanOptions.scanOptions().count(pageSize).build()).stream();
+    }
+
+    /**
+     * 对象与hash的映射,对象的每个字段存为一个hash项,与hget/hset数据互通
+     * <p>
+     * 支持按字段HMGET部分读取,track读取的对象save时只写入变化的字段
+     * <p>
+     * RedisUtil.hashMapper(Profile.class).get(k, "name", "age")
+     *
+     * @param type 类型 需要无参构造
+     * @return 映射
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ProHashMapper<T> hashMapper(Class<T> type) {
+        return (ProHashMapper<T>) HASH_MAPPERS.computeIfAbsent(type, t -> new ProHashMapper<>(t, staticRedisTemplate));
+    }
+
     /**
      * HashSet
      *
@@ -275,6 +430,32 @@ public class RedisUtil {
     }
 
 
+    /**
+     * HashSet 并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key  键
+     * @param map  对应多个键值
+     * @param time 时间(秒) time要大于0 如果time小于等于0 将设置无限期
+     * @return true成功 false失败
+     */
+    public static boolean hmsetWithExpire(String key, Map<String, Object> map, long time) {
+        try {
+            RedisSerializer<Object> hashKeySerializer = hashKeySerializer(), hashValueSerializer = hashValueSerializer();
+            List<byte[]> args = new ArrayList<>((map.size() << 1) + 2);
+            args.add(rawKey(key));
+            args.add(ttlArg(time));
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                args.add(hashKeySerializer.serialize(entry.getKey()));
+                args.add(hashValueSerializer.serialize(entry.getValue()));
+            }
+            return Boolean.TRUE.equals(execute(staticRedisTemplate, HASH_PUT_ALL_WITH_EXPIRE_SCRIPT, SCRIPT_KEYS_COUNT, args.toArray(new byte[0][])));
+        } catch (Exception e) {
+            LOGGER.error("hmsetWithExpire", e);
+            return false;
+        }
+    }
+
+
     /**
      * 向一张hash表中放入数据,如果不存在将创建
      *
@@ -315,6 +496,25 @@ public class RedisUtil {
         }
     }
 
+    /**
+     * 向一张hash表中放入数据并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key   键
+     * @param item  项
+     * @param value 值
+     * @param time  时间(秒) 注意:如果已存在的hash表有时间,这里将会替换原有的时间
+     * @return true 成功 false失败
+     */
+    public static boolean hsetWithExpire(String key, String item, Object value, long time) {
+        try {
+            return Boolean.TRUE.equals(execute(staticRedisTemplate, HASH_PUT_ALL_WITH_EXPIRE_SCRIPT, SCRIPT_KEYS_COUNT,
+                    rawKey(key), ttlArg(time), hashKeySerializer().serialize(item), hashValueSerializer().serialize(value)));
+        } catch (Exception e) {
+            LOGGER.error("hsetWithExpire", e);
+            return false;
+        }
+    }
+
 
     /**
      * 删除hash表中的值
@@ -380,6 +580,20 @@ public class RedisUtil {
     }
 
 
+    /**
+     * 基于SSCAN游标分页遍历set,逐条反序列化,内存占用与set大小无关
+     * <p>
+     * 返回的Stream持有游标,需要使用try-with-resources关闭
+     *
+     * @param key      键
+     * @param pageSize 每页数量提示
+     * @return 值
+     */
+    public static Stream<Object> sScan(String key, int pageSize) {
+        return staticRedisTemplate.opsForSet().scan(key, ScanOptions.scanOptions().count(pageSize).build()).stream();
+    }
+
+
     /**
      * 根据value从一个set中查询,是否存在
      *
@@ -435,6 +649,30 @@ public class RedisUtil {
     }
 
 
+    /**
+     * 将set数据放入缓存并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key    键
+     * @param time   时间(秒)
+     * @param values 值 可以是多个
+     * @return 成功个数
+     */
+    public static long sSetWithExpire(String key, long time, Object... values) {
+        try {
+            RedisSerializer<Object> valueSerializer = valueSerializer();
+            List<byte[]> args = new ArrayList<>(values.length + 2);
+            args.add(rawKey(key));
+            args.add(ttlArg(time));
+            for (Object v : values)
+                args.add(valueSerializer.serialize(v));
+            return ofNullable(execute(staticRedisTemplate, SET_ADD_ALL_WITH_EXPIRE_SCRIPT, SCRIPT_KEYS_COUNT, args.toArray(new byte[0][]))).orElse(0L);
+        } catch (Exception e) {
+            LOGGER.error("sSetWithExpire", e);
+            return 0;
+        }
+    }
+
+
     /**
      * 获取set缓存的长度
      *
@@ -486,6 +724,21 @@ public class RedisUtil {
     }
 
 
+    /**
+     * 基于LRANGE分页遍历list,每次只加载一页,内存占用与list大小无关
+     * <p>
+     * 遍历过程中头部的插入或删除会导致页偏移
+     *
+     * @param key      键
+     * @param pageSize 每页数量
+     * @return 值
+     */
+    public static Stream<Object> lScan(String key, int pageSize) {
+        return StreamSupport.stream(spliteratorUnknownSize(
+                new ProPagedListIterator<>((start, end) -> staticRedisTemplate.opsForList().range(key, start, end), pageSize), ORDERED), false);
+    }
+
+
     /**
      * 获取list缓存的长度
      *
@@ -595,6 +848,49 @@ public class RedisUtil {
     }
 
 
+    /**
+     * 将list放入缓存并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒)
+     * @return boolean
+     */
+    public static boolean lSetWithExpire(String key, Object value, long time) {
+        try {
+            return ofNullable(execute(staticRedisTemplate, LIST_RIGHT_PUSH_ALL_WITH_EXPIRE_SCRIPT, SCRIPT_KEYS_COUNT,
+                    rawKey(key), ttlArg(time), valueSerializer().serialize(value))).orElse(0L) > 0;
+        } catch (Exception e) {
+            LOGGER.error("lSetWithExpire", e);
+            return false;
+        }
+    }
+
+
+    /**
+     * 将list放入缓存并设置时间,写入与过期在一次原子操作中完成
+     *
+     * @param key   键
+     * @param value 值
+     * @param time  时间(秒)
+     * @return boolean
+     */
+    public static boolean lSetWithExpire(String key, List<Object> value, long time) {
+        try {
+            RedisSerializer<Object> valueSerializer = valueSerializer();
+            List<byte[]> args = new ArrayList<>(value.size() + 2);
+            args.add(rawKey(key));
+            args.add(ttlArg(time));
+            for (Object v : value)
+                args.add(valueSerializer.serialize(v));
+            return ofNullable(execute(staticRedisTemplate, LIST_RIGHT_PUSH_ALL_WITH_EXPIRE_SCRIPT, SCRIPT_KEYS_COUNT, args.toArray(new byte[0][]))).orElse(0L) > 0;
+        } catch (Exception e) {
+            LOGGER.error("lSetWithExpire", e);
+            return false;
+        }
+    }
+
+
     /**
      * 根据索引修改list中的某条数据
      *
@@ -646,4 +942,79 @@ public class RedisUtil {
     public static boolean zAdd(String key, Object value, double score) {
         return Boolean.TRUE.equals(staticRedisTemplate.opsForZSet().add(key, value, score));
     }
+
+
+    /**
+     * 基于ZSCAN游标分页遍历zset,逐条反序列化,内存占用与zset大小无关
+     * <p>
+     * 返回的Stream持有游标,需要使用try-with-resources关闭
+     *
+     * @param key      键
+     * @param pageSize 每页数量提示
+     * @return 值与分数
+     */
+    public static Stream<ZSetOperations.TypedTuple<Object>> zScan(String key, int pageSize) {
+        return staticRedisTemplate.opsForZSet().scan(key, ScanOptions.scanOptions().count(pageSize).build()).stream();
+    }
+
+    // ===============================serializer=================================
+
+    @SuppressWarnings("unchecked")
+    private static byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) staticRedisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    private static byte[] ttlArg(long time) {
+        return String.valueOf(time).getBytes(UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisSerializer<Object> valueSerializer() {
+        return (RedisSerializer<Object>) staticRedisTemplate.getValueSerializer();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisSerializer<Object> hashKeySerializer() {
+        return (RedisSerializer<Object>) staticRedisTemplate.getHashKeySerializer();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RedisSerializer<Object> hashValueSerializer() {
+        return (RedisSerializer<Object>) staticRedisTemplate.getHashValueSerializer();
+    }
+
+    private static Function<List<String>, CompletableFuture<List<Object>>> asyncMultiGetter(ProNativeConnection nativeConnection) {
+        if (nativeConnection == null)
+            throw new RuntimeException("read coalescer can't be initialized, nativeConnection can't be null");
+
+        return keys -> {
+            byte[][] rawKeys = new byte[keys.size()][];
+            for (int i = 0; i < rawKeys.length; i++)
+                rawKeys[i] = rawKey(keys.get(i));
+
+            return nativeConnection.mget(rawKeys).thenApply(rawValues -> {
+                RedisSerializer<Object> valueSerializer = valueSerializer();
+                List<Object> values = new ArrayList<>(rawValues.size());
+                for (byte[] rawValue : rawValues)
+                    values.add(valueSerializer.deserialize(rawValue));
+                return values;
+            });
+        };
+    }
+
+    private static void invalidateNearCache(String... keys) {
+        if (staticNearCache == null)
+            return;
+
+        for (String key : keys)
+            if (key != null)
+                staticNearCache.invalidate(key);
+    }
+
+    private static ProKeyScanner keyScanner() {
+        if (staticKeyScanner == null)
+            throw new RuntimeException("key scanner is not initialized, nativeConnection can't be null");
+
+        return staticKeyScanner;
+    }
 }